@@ -0,0 +1,82 @@
+package org.openrewrite.contrib;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link PathUtils#matchesGlob} with a {@link GlobMatcher}, with and without its result cache. Every operation
+ * matches all the paths of a synthetic repository, and each path is matched twice as a scanning recipe does, once by its
+ * scanner and once by its visitor.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GlobMatcherBenchmark {
+
+  @Param({"**/resources/*.properties", "**/src/main/**/application-*.properties", "**/{main,test}/**/*.properties"})
+  public String pattern;
+
+  @Param({"1000", "100000"})
+  public int paths;
+
+  private List<Path> sourcePaths;
+  private GlobMatcher compiled;
+  private GlobMatcher cached;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    sourcePaths = new ArrayList<>(paths);
+    String[] files = {"Service.java", "application.properties", "application-dev.properties", "application.yml", "pom.xml"};
+    for (int i = 0; i < paths; i++) {
+      String sourceSet = i % 3 == 0 ? "test" : "main";
+      String directory = i % 5 == 0 ? "java/org/sample/gen" + (i % 100) : "resources";
+      sourcePaths.add(Paths.get("module-" + (i % 250), "src", sourceSet, directory, files[i % files.length]));
+    }
+    compiled = GlobMatcher.of(Collections.singletonList(pattern), Collections.emptyList(), 0);
+    cached = GlobMatcher.of(Collections.singletonList(pattern), Collections.emptyList(), 2 * paths);
+  }
+
+  @Benchmark
+  public int matchesGlob() {
+    int matches = 0;
+    for (int pass = 0; pass < 2; pass++) {
+      for (Path sourcePath : sourcePaths) {
+        if (PathUtils.matchesGlob(sourcePath, pattern)) {
+          matches++;
+        }
+      }
+    }
+    return matches;
+  }
+
+  @Benchmark
+  public int compiled() {
+    return match(compiled);
+  }
+
+  @Benchmark
+  public int compiledAndCached() {
+    return match(cached);
+  }
+
+  private int match(GlobMatcher matcher) {
+    int matches = 0;
+    for (int pass = 0; pass < 2; pass++) {
+      for (Path sourcePath : sourcePaths) {
+        if (matcher.matches(sourcePath)) {
+          matches++;
+        }
+      }
+    }
+    return matches;
+  }
+}
@@ -0,0 +1,158 @@
+package org.openrewrite.contrib.convert;
+
+import org.openjdk.jmh.annotations.*;
+import org.openrewrite.SourceFile;
+import org.openrewrite.contrib.serialization.SyntheticCorpus;
+import org.openrewrite.properties.PropertiesVisitor;
+import org.openrewrite.properties.tree.Properties;
+import org.openrewrite.yaml.YamlVisitor;
+import org.openrewrite.yaml.tree.Yaml;
+
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how fast {@link PropertiesAccumulator} collects the properties of a corpus of files. Every operation
+ * collects the whole corpus into a new accumulator. {@code baseline} collects the same tries the way keys were collected
+ * before they were tokenized in place: splitting each key into a new list and copying the comments of every property.
+ * <p>
+ * The number of properties in the corpus is reported as the {@code entries} secondary result of each iteration. Run
+ * with the GC profiler ({@code -prof gc}) and divide {@code gc.alloc.rate.norm} by it to get the allocation per entry.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PropertiesAccumulatorBenchmark {
+
+  @Param({"YAML", "PROPERTIES"})
+  public SyntheticCorpus.Language language;
+
+  @Param({"100", "1000"})
+  public int files;
+
+  @Param({"false", "true"})
+  public boolean sorted;
+
+  private List<SourceFile> sourceFiles;
+  private int entries;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    sourceFiles = SyntheticCorpus.parse(language, files);
+    entries = 0;
+    for (PropertyTrie properties : collect().pathToProperties().values()) {
+      entries += count(properties.getRoot());
+    }
+  }
+
+  /**
+   * Reports the number of properties in the corpus alongside the score, it does not change with the number of
+   * operations.
+   */
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  @State(Scope.Thread)
+  public static class Entries {
+    public long entries;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      entries = 0;
+    }
+  }
+
+  @Benchmark
+  public PropertiesAccumulator collect(Entries counters) {
+    counters.entries = entries;
+    return collect();
+  }
+
+  @Benchmark
+  public Map<Path, PropertyTrie> baseline(Entries counters) {
+    counters.entries = entries;
+    Map<Path, PropertyTrie> pathToProperties = new HashMap<>();
+    for (SourceFile sourceFile : sourceFiles) {
+      PropertyTrie properties = new PropertyTrie(sorted);
+      if (sourceFile instanceof Properties.File) {
+        collectBaseline((Properties.File) sourceFile, properties);
+      } else {
+        collectBaseline((Yaml.Documents) sourceFile, properties);
+      }
+      pathToProperties.put(sourceFile.getSourcePath(), properties);
+    }
+    return pathToProperties;
+  }
+
+  private PropertiesAccumulator collect() {
+    PropertiesAccumulator acc = new PropertiesAccumulator(sorted);
+    for (SourceFile sourceFile : sourceFiles) {
+      if (sourceFile instanceof Properties.File) {
+        acc.collectSourceFileProperties((Properties.File) sourceFile);
+      } else {
+        acc.collectSourceFileProperties((Yaml.Documents) sourceFile);
+      }
+    }
+    return acc;
+  }
+
+  private static void collectBaseline(Properties.File sourceFile, PropertyTrie properties) {
+    List<String> accumulatedComments = new ArrayList<>();
+    new PropertiesVisitor<PropertyTrie>() {
+      @Override
+      public Properties visitEntry(Properties.Entry entry, PropertyTrie propertyTrie) {
+        propertyTrie.put(new ArrayList<>(Arrays.asList(entry.getKey().split("\\."))), entry.getValue().getText(),
+            new ArrayList<>(accumulatedComments));
+        accumulatedComments.clear();
+        return super.visitEntry(entry, propertyTrie);
+      }
+
+      @Override
+      public Properties visitComment(Properties.Comment comment, PropertyTrie propertyTrie) {
+        accumulatedComments.add(comment.getMessage());
+        return super.visitComment(comment, propertyTrie);
+      }
+    }.visit(sourceFile, properties);
+  }
+
+  private static void collectBaseline(Yaml.Documents sourceFile, PropertyTrie properties) {
+    List<String> accumulatedComments = new ArrayList<>();
+    new YamlVisitor<PropertyTrie>() {
+      private final List<String> path = new ArrayList<>();
+
+      @Override
+      public Yaml visitMapping(Yaml.Mapping mapping, PropertyTrie propertyTrie) {
+        accumulatedComments.addAll(YamlConverterUtils.extractComments(mapping.getPrefix()));
+        return super.visitMapping(mapping, propertyTrie);
+      }
+
+      @Override
+      public Yaml visitMappingEntry(Yaml.Mapping.Entry entry, PropertyTrie propertyTrie) {
+        path.add(entry.getKey().getValue());
+        visit(entry.getValue(), propertyTrie);
+        path.remove(path.size() - 1);
+        return entry;
+      }
+
+      @Override
+      public Yaml visitScalar(Yaml.Scalar scalar, PropertyTrie propertyTrie) {
+        propertyTrie.put(new ArrayList<>(path), scalar.getValue(), new ArrayList<>(accumulatedComments));
+        accumulatedComments.clear();
+        return super.visitScalar(scalar, propertyTrie);
+      }
+    }.visit(sourceFile, properties);
+  }
+
+  private static int count(PropertyTrie.Node node) {
+    if (node.getValue() != null) {
+      return 1;
+    }
+    int count = 0;
+    for (PropertyTrie.Node child : node.getChildren()) {
+      count += count(child);
+    }
+    return count;
+  }
+}
@@ -0,0 +1,80 @@
+package org.openrewrite.contrib.serialization;
+
+import org.openjdk.jmh.annotations.*;
+import org.openrewrite.SourceFile;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how fast {@link LstSerializer} encodes and decodes corpora of increasing size in each of its formats. Every
+ * operation covers the whole corpus. Run with the GC profiler ({@code -prof gc}) to also report the allocation rate,
+ * the encoded size of the corpus is reported as the {@code bytesPerFile} secondary result of each iteration.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LstSerializerBenchmark {
+
+  @Param({"JAVA", "YAML", "PROPERTIES"})
+  public SyntheticCorpus.Language language;
+
+  @Param({"10", "100", "1000"})
+  public int files;
+
+  @Param({"JSON", "JSON_COMPACT", "SMILE", "CBOR"})
+  public LstSerializer.Format format;
+
+  private LstSerializer serializer;
+  private List<SourceFile> sourceFiles;
+  private byte[] serialized;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    serializer = new LstSerializer(format);
+    sourceFiles = SyntheticCorpus.parse(language, files);
+    serialized = serializer.serialize(sourceFiles);
+  }
+
+  /**
+   * Reports the encoded size of the corpus alongside the score, it does not change with the number of operations.
+   */
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  @State(Scope.Thread)
+  public static class EncodedSize {
+    public long bytesPerFile;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      bytesPerFile = 0;
+    }
+  }
+
+  @Benchmark
+  public byte[] serialize(EncodedSize encodedSize) {
+    byte[] bytes = serializer.serialize(sourceFiles);
+    encodedSize.bytesPerFile = bytes.length / files;
+    return bytes;
+  }
+
+  @Benchmark
+  public List<SourceFile> deserialize() {
+    return serializer.deserialize(serialized);
+  }
+
+  @Benchmark
+  public int stream() {
+    int count = 0;
+    try (SourceFileIterator iterator = serializer.iterator(new ByteArrayInputStream(serialized))) {
+      while (iterator.hasNext()) {
+        iterator.next();
+        count++;
+      }
+    }
+    return count;
+  }
+}
@@ -0,0 +1,128 @@
+package org.openrewrite.contrib.serialization;
+
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.Parser;
+import org.openrewrite.SourceFile;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.properties.PropertiesParser;
+import org.openrewrite.yaml.YamlParser;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Generates and parses source files of a similar shape and size to the ones found in a typical Spring Boot service, so
+ * that benchmarks can run over corpora of any size without checking in sources.
+ */
+public class SyntheticCorpus {
+
+  public enum Language {
+    JAVA,
+    YAML,
+    PROPERTIES
+  }
+
+  public static List<SourceFile> parse(Language language, int files) {
+    List<Parser.Input> inputs = new ArrayList<>(files);
+    for (int i = 0; i < files; i++) {
+      switch (language) {
+        case JAVA:
+          inputs.add(Parser.Input.fromString(Paths.get("src/main/java/org/sample/gen/Service" + i + ".java"), java(i)));
+          break;
+        case YAML:
+          inputs.add(Parser.Input.fromString(Paths.get("src/main/resources/application-" + i + ".yml"), yaml(i)));
+          break;
+        case PROPERTIES:
+        default:
+          inputs.add(Parser.Input.fromString(Paths.get("src/main/resources/application-" + i + ".properties"), properties(i)));
+          break;
+      }
+    }
+    return parser(language).parseInputs(inputs, null, new InMemoryExecutionContext(Throwable::printStackTrace))
+        .collect(Collectors.toList());
+  }
+
+  private static Parser parser(Language language) {
+    switch (language) {
+      case JAVA:
+        return JavaParser.fromJavaVersion().build();
+      case YAML:
+        return YamlParser.builder().build();
+      case PROPERTIES:
+      default:
+        return PropertiesParser.builder().build();
+    }
+  }
+
+  private static String java(int i) {
+    // Each service references the previous one so that the type attribution crosses source files
+    String dependency = i == 0 ? "Object" : "Service" + (i - 1);
+    return "package org.sample.gen;\n" +
+           "\n" +
+           "import java.util.ArrayList;\n" +
+           "import java.util.HashMap;\n" +
+           "import java.util.List;\n" +
+           "import java.util.Map;\n" +
+           "\n" +
+           "public class Service" + i + " {\n" +
+           "    private final " + dependency + " dependency;\n" +
+           "    private final Map<String, Integer> counts = new HashMap<>();\n" +
+           "    private final List<String> names = new ArrayList<>();\n" +
+           "\n" +
+           "    public Service" + i + "(" + dependency + " dependency) {\n" +
+           "        this.dependency = dependency;\n" +
+           "    }\n" +
+           "\n" +
+           "    public int count(String name) {\n" +
+           "        return counts.getOrDefault(name, 0);\n" +
+           "    }\n" +
+           "\n" +
+           "    public String describe() {\n" +
+           "        StringBuilder description = new StringBuilder(\"service-" + i + "\");\n" +
+           "        for (String name : names) {\n" +
+           "            if (count(name) > " + i % 10 + ") {\n" +
+           "                description.append(':').append(name).append('=').append(count(name));\n" +
+           "            }\n" +
+           "        }\n" +
+           "        return description.toString() + dependency;\n" +
+           "    }\n" +
+           "}\n";
+  }
+
+  private static String yaml(int i) {
+    return "spring:\n" +
+           "  application:\n" +
+           "    name: service-" + i + "\n" +
+           "  datasource:\n" +
+           "    url: jdbc:postgresql://localhost:5432/db" + i + "\n" +
+           "    username: user" + i + "\n" +
+           "    hikari:\n" +
+           "      maximum-pool-size: " + (10 + i % 20) + "\n" +
+           "server:\n" +
+           "  port: " + (8080 + i) + "\n" +
+           "management:\n" +
+           "  endpoints:\n" +
+           "    web:\n" +
+           "      exposure:\n" +
+           "        include:\n" +
+           "          - health\n" +
+           "          - info\n" +
+           "          - metrics\n" +
+           "logging:\n" +
+           "  level:\n" +
+           "    org.sample.gen: DEBUG # more detail for service " + i + "\n";
+  }
+
+  private static String properties(int i) {
+    return "# service " + i + "\n" +
+           "spring.application.name=service-" + i + "\n" +
+           "spring.datasource.url=jdbc:postgresql://localhost:5432/db" + i + "\n" +
+           "spring.datasource.username=user" + i + "\n" +
+           "spring.datasource.hikari.maximum-pool-size=" + (10 + i % 20) + "\n" +
+           "server.port=" + (8080 + i) + "\n" +
+           "management.endpoints.web.exposure.include=health,info,metrics\n" +
+           "logging.level.org.sample.gen=DEBUG\n";
+  }
+}
@@ -0,0 +1,285 @@
+package org.openrewrite.contrib;
+
+import org.jspecify.annotations.Nullable;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Predicate;
+
+/**
+ * Matches paths against a set of include and exclude glob patterns, compiled once, with the same results as
+ * {@link PathUtils#matchesGlob}. A path matches when it matches any include pattern and no exclude pattern.
+ * <p>
+ * Patterns made only of literal segments, {@code **}, {@code *} and {@code ?} are split into segments once, and each path
+ * is split once into the bounds of its segments, without copying them, and matched against every compiled pattern.
+ * Patterns using the other glob features, such as {@code {a,b}} or {@code !(...)}, are matched with
+ * {@link org.openrewrite.PathUtils#matchesGlob} for each path.
+ * <p>
+ * The results are kept in a bounded, direct-mapped cache keyed by path, as recipes check the same source paths in their
+ * scanner and in their visitor. The matcher is thread-safe.
+ */
+public class GlobMatcher implements Predicate<@Nullable Path> {
+
+  public static final int DEFAULT_CACHE_CAPACITY = 1 << 14;
+
+  private final List<String> includes;
+  private final List<String> excludes;
+  private final boolean matchesAll;
+  private final List<CompiledPattern> compiledIncludes = new ArrayList<>();
+  private final List<String> uncompiledIncludes = new ArrayList<>();
+  private final List<CompiledPattern> compiledExcludes = new ArrayList<>();
+  private final List<String> uncompiledExcludes = new ArrayList<>();
+  private final @Nullable AtomicReferenceArray<CachedResult> cache;
+  private final int mask;
+
+  private GlobMatcher(Collection<String> includes, Collection<String> excludes, int cacheCapacity) {
+    if (cacheCapacity < 0 || cacheCapacity > 1 << 30) {
+      throw new IllegalArgumentException("The cache capacity must be between 0 and 2^30 but was " + cacheCapacity);
+    }
+    this.includes = Collections.unmodifiableList(new ArrayList<>(includes));
+    this.excludes = Collections.unmodifiableList(new ArrayList<>(excludes));
+    this.matchesAll = includes.contains("**") && excludes.isEmpty();
+    compile(includes, compiledIncludes, uncompiledIncludes);
+    compile(excludes, compiledExcludes, uncompiledExcludes);
+    if (cacheCapacity == 0) {
+      this.cache = null;
+      this.mask = 0;
+    } else {
+      int size = Integer.highestOneBit(cacheCapacity);
+      if (size < cacheCapacity) {
+        size <<= 1;
+      }
+      this.cache = new AtomicReferenceArray<>(size);
+      this.mask = size - 1;
+    }
+  }
+
+  public static GlobMatcher of(Collection<String> includes, Collection<String> excludes) {
+    return of(includes, excludes, DEFAULT_CACHE_CAPACITY);
+  }
+
+  /**
+   * @param includes      The patterns a path must match one of, null patterns match nothing
+   * @param excludes      The patterns a path must match none of
+   * @param cacheCapacity The number of results kept, rounded up to a power of two, or 0 to disable the cache
+   */
+  public static GlobMatcher of(Collection<String> includes, Collection<String> excludes, int cacheCapacity) {
+    return new GlobMatcher(includes, excludes, cacheCapacity);
+  }
+
+  public List<String> getIncludes() {
+    return includes;
+  }
+
+  public List<String> getExcludes() {
+    return excludes;
+  }
+
+  public boolean matches(@Nullable Path path) {
+    if (matchesAll) {
+      return true;
+    } else if (path == null) {
+      return matchesUncompiled(null, includes) && !matchesUncompiled(null, excludes);
+    } else if (cache == null) {
+      return match(path);
+    }
+    int hash = path.hashCode();
+    int slot = (hash ^ (hash >>> 16)) & mask;
+    CachedResult cached = cache.get(slot);
+    if (cached != null && cached.path.equals(path)) {
+      return cached.matches;
+    }
+    boolean matches = match(path);
+    cache.set(slot, new CachedResult(path, matches));
+    return matches;
+  }
+
+  @Override
+  public boolean test(@Nullable Path path) {
+    return matches(path);
+  }
+
+  private boolean match(Path path) {
+    String pathString = path.toString();
+    if (pathString.isEmpty() || isSeparator(pathString.charAt(pathString.length() - 1))) {
+      // Empty paths and paths with a trailing separator hit special cases of the glob matching
+      return matchesUncompiled(path, includes) && !matchesUncompiled(path, excludes);
+    }
+    int[] bounds = segmentBounds(pathString);
+    return matches(path, pathString, bounds, compiledIncludes, uncompiledIncludes) &&
+        !matches(path, pathString, bounds, compiledExcludes, uncompiledExcludes);
+  }
+
+  private static boolean matches(Path path, String pathString, int[] bounds, List<CompiledPattern> compiled,
+                                 List<String> uncompiled) {
+    for (CompiledPattern pattern : compiled) {
+      if (pattern.matches(pathString, bounds)) {
+        return true;
+      }
+    }
+    return matchesUncompiled(path, uncompiled);
+  }
+
+  /**
+   * @return The start and end of each segment of the path, one after the other
+   */
+  private static int[] segmentBounds(String path) {
+    int segments = 1;
+    for (int i = 0; i < path.length(); i++) {
+      if (isSeparator(path.charAt(i))) {
+        segments++;
+      }
+    }
+    int[] bounds = new int[segments * 2];
+    int segment = 0;
+    int start = 0;
+    for (int i = 0; i < path.length(); i++) {
+      if (isSeparator(path.charAt(i))) {
+        bounds[segment++] = start;
+        bounds[segment++] = i;
+        start = i + 1;
+      }
+    }
+    bounds[segment++] = start;
+    bounds[segment] = path.length();
+    return bounds;
+  }
+
+  private static boolean matchesUncompiled(@Nullable Path path, List<String> patterns) {
+    for (String pattern : patterns) {
+      if (org.openrewrite.PathUtils.matchesGlob(path, pattern)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Adds the patterns that can be compiled to the compiled patterns, and the others to the uncompiled patterns.
+   */
+  private static void compile(Collection<String> patterns, List<CompiledPattern> compiled, List<String> uncompiled) {
+    for (String pattern : patterns) {
+      if (isCompilable(pattern)) {
+        compiled.add(new CompiledPattern(pattern.replace('\\', '/').split("/")));
+      } else if (pattern != null) {
+        uncompiled.add(pattern);
+      }
+    }
+  }
+
+  /**
+   * @return Whether the pattern only uses literal segments, {@code **}, {@code *} and {@code ?}, and has none of the
+   * leading, trailing or repeated separators that the glob matching treats specially
+   */
+  private static boolean isCompilable(@Nullable String pattern) {
+    if (pattern == null || pattern.isEmpty() || isSeparator(pattern.charAt(0)) ||
+        isSeparator(pattern.charAt(pattern.length() - 1))) {
+      return false;
+    }
+    for (int i = 0; i < pattern.length(); i++) {
+      char c = pattern.charAt(i);
+      if (c == '{' || c == '}' || c == '(' || c == ')' || c == '!' ||
+          (isSeparator(c) && isSeparator(pattern.charAt(i - 1)))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isSeparator(char c) {
+    return c == '/' || c == '\\';
+  }
+
+  /**
+   * The segments of a pattern, where {@code **} matches any number of path segments and any other segment matches
+   * exactly one, with {@code *} matching any number of characters and {@code ?} any single character within it.
+   */
+  private static class CompiledPattern {
+    final String[] segments;
+    final boolean[] anySegments;
+    final boolean[] wildcards;
+
+    CompiledPattern(String[] segments) {
+      this.segments = segments;
+      this.anySegments = new boolean[segments.length];
+      this.wildcards = new boolean[segments.length];
+      for (int i = 0; i < segments.length; i++) {
+        anySegments[i] = "**".equals(segments[i]);
+        wildcards[i] = segments[i].indexOf('*') >= 0 || segments[i].indexOf('?') >= 0;
+      }
+    }
+
+    /**
+     * Matches the path segments like characters are matched against a pattern with {@code *}, going back to the last
+     * {@code **} when a segment does not match.
+     */
+    boolean matches(String path, int[] bounds) {
+      int pathSegments = bounds.length / 2;
+      int p = 0;
+      int s = 0;
+      int anyP = -1;
+      int anyS = -1;
+      while (s < pathSegments) {
+        if (p < segments.length && anySegments[p]) {
+          anyP = p++;
+          anyS = s;
+        } else if (p < segments.length && matchesSegment(p, path, bounds[2 * s], bounds[2 * s + 1])) {
+          p++;
+          s++;
+        } else if (anyP >= 0) {
+          p = anyP + 1;
+          s = ++anyS;
+        } else {
+          return false;
+        }
+      }
+      while (p < segments.length && anySegments[p]) {
+        p++;
+      }
+      return p == segments.length;
+    }
+
+    private boolean matchesSegment(int p, String path, int start, int end) {
+      String segment = segments[p];
+      if (!wildcards[p]) {
+        return segment.length() == end - start && segment.regionMatches(0, path, start, end - start);
+      }
+      int i = 0;
+      int c = start;
+      int starI = -1;
+      int starC = -1;
+      while (c < end) {
+        if (i < segment.length() && segment.charAt(i) == '*') {
+          starI = i++;
+          starC = c;
+        } else if (i < segment.length() && (segment.charAt(i) == '?' || segment.charAt(i) == path.charAt(c))) {
+          i++;
+          c++;
+        } else if (starI >= 0) {
+          i = starI + 1;
+          c = ++starC;
+        } else {
+          return false;
+        }
+      }
+      while (i < segment.length() && segment.charAt(i) == '*') {
+        i++;
+      }
+      return i == segment.length();
+    }
+  }
+
+  private static class CachedResult {
+    final Path path;
+    final boolean matches;
+
+    CachedResult(Path path, boolean matches) {
+      this.path = path;
+      this.matches = matches;
+    }
+  }
+}
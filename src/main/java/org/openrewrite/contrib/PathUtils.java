@@ -4,6 +4,8 @@ import org.jspecify.annotations.Nullable;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
 
 public class PathUtils {
 
@@ -23,6 +25,15 @@ public class PathUtils {
     return org.openrewrite.PathUtils.matchesGlob(path, globPattern);
   }
 
+  /**
+   * Compiles glob patterns once, for matching many paths with the same results as {@link #matchesGlob}.
+   * @param globPatterns The patterns, a path matches if it matches any of them
+   * @return A matcher that also caches its results, see {@link GlobMatcher}
+   */
+  public static GlobMatcher compileGlob(String... globPatterns) {
+    return GlobMatcher.of(Arrays.asList(globPatterns), Collections.emptyList());
+  }
+
   public static Path withExtension(Path path, String extension) {
     String filename = path.getFileName().toString();
     int dotIndex = filename.lastIndexOf('.');
@@ -1,23 +1,33 @@
 package org.openrewrite.contrib.convert;
 
 
+import lombok.AccessLevel;
 import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
 import lombok.Value;
 import org.jspecify.annotations.Nullable;
 import org.openrewrite.*;
+import org.openrewrite.contrib.GlobMatcher;
 import org.openrewrite.contrib.PathUtils;
 import org.openrewrite.properties.tree.Properties;
-import org.openrewrite.yaml.YamlParser;
 import org.openrewrite.yaml.tree.Yaml;
 
 import java.nio.file.Path;
 import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 
 @Value
 @EqualsAndHashCode(callSuper = false)
 public class ConvertPropertiesToYaml extends ScanningRecipe<PropertiesAccumulator> {
 
+  /**
+   * The number of files from which generating them in parallel pays off.
+   */
+  private static final int PARALLEL_GENERATION_THRESHOLD = 64;
+
   @Option(displayName = "File pattern",
       description = "A glob expression representing a file path (relative to the project root). Only files matching " +
           "the expression will be converted and blank/null matches all.",
@@ -39,11 +49,20 @@ public class ConvertPropertiesToYaml extends ScanningRecipe<PropertiesAccumulato
       required = false)
   String yamlSuffix;
 
+  /**
+   * The file pattern compiled once, as both the scanner and the visitor match it against every source file.
+   */
+  @EqualsAndHashCode.Exclude
+  @ToString.Exclude
+  @Getter(AccessLevel.NONE)
+  transient GlobMatcher filePatternMatcher;
+
   public ConvertPropertiesToYaml(@Nullable String filePattern, @Nullable Boolean sortKeys, @Nullable String yamlSuffix) {
     //noinspection DataFlowIssue
     this.filePattern = PathUtils.normalize(filePattern == null ? "**" : filePattern);
     this.sortKeys = sortKeys;
     this.yamlSuffix = yamlSuffix == null ? "yml" : yamlSuffix;
+    this.filePatternMatcher = PathUtils.compileGlob(this.filePattern);
   }
 
   @Override
@@ -68,7 +87,7 @@ public class ConvertPropertiesToYaml extends ScanningRecipe<PropertiesAccumulato
       public @Nullable Tree visit(@Nullable Tree tree, ExecutionContext executionContext) {
         if (tree instanceof Properties.File) {
           Properties.File sourceFile = (Properties.File) tree;
-          if (PathUtils.matchesGlob(sourceFile.getSourcePath(), filePattern)) {
+          if (filePatternMatcher.matches(sourceFile.getSourcePath())) {
             // Only collect properties from files that match the file pattern
             acc.collectSourceFileProperties(sourceFile);
           }
@@ -86,22 +105,27 @@ public class ConvertPropertiesToYaml extends ScanningRecipe<PropertiesAccumulato
   @Override
   public Collection<? extends SourceFile> generate(PropertiesAccumulator acc, ExecutionContext ctx) {
 
-    List<SourceFile> generated = new ArrayList<>();
-
-    for (Map.Entry<Path, Map<String, Object>> entry : acc.pathToProperties().entrySet()) {
-      Path targetPath = PathUtils.withExtension(entry.getKey(), yamlSuffix);
-
-      if (acc.pathToSourceFile().containsKey(targetPath)) {
+    // Files may have been scanned in any order, generate them in path order so that the result does not depend on it
+    List<Map.Entry<Path, PropertyTrie>> toConvert = new ArrayList<>();
+    for (Map.Entry<Path, PropertyTrie> entry : new TreeMap<>(acc.pathToProperties()).entrySet()) {
+      if (acc.pathToSourceFile().containsKey(PathUtils.withExtension(entry.getKey(), yamlSuffix))) {
         // Don't overwrite existing yaml files
         continue;
       }
+      toConvert.add(entry);
+    }
 
-      YamlParser.builder().build().parse(YamlConverterUtils.toYaml(entry.getValue())).findFirst().ifPresent(
-          yamlFile -> generated.add(yamlFile.withSourcePath(targetPath))
-      );
+    if (toConvert.isEmpty()) {
+      return Collections.emptySet();
     }
 
-    return generated.isEmpty() ? Collections.emptySet() : generated;
+    // Each file is converted on its own, so large sets of files are converted on the common fork-join pool. The
+    // stream is ordered, so the files are still collected in path order.
+    Stream<Map.Entry<Path, PropertyTrie>> entries = toConvert.size() >= PARALLEL_GENERATION_THRESHOLD ?
+        toConvert.parallelStream() : toConvert.stream();
+    return entries
+        .map(entry -> YamlConverterUtils.toYamlDocuments(PathUtils.withExtension(entry.getKey(), yamlSuffix), entry.getValue()))
+        .collect(Collectors.toList());
   }
 
   @Override
@@ -111,7 +135,7 @@ public class ConvertPropertiesToYaml extends ScanningRecipe<PropertiesAccumulato
       public @Nullable Tree visit(@Nullable Tree tree, ExecutionContext executionContext) {
         if (tree instanceof Properties.File) {
           Properties.File sourceFile = (Properties.File) tree;
-          if (PathUtils.matchesGlob(sourceFile.getSourcePath(), filePattern)) {
+          if (filePatternMatcher.matches(sourceFile.getSourcePath())) {
             // Delete the properties file
             return null;
           }
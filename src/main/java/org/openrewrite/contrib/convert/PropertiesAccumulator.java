@@ -1,8 +1,13 @@
 package org.openrewrite.contrib.convert;
 
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
 import lombok.Value;
 import lombok.experimental.Accessors;
 import org.openrewrite.SourceFile;
+import org.openrewrite.contrib.serialization.StringInterner;
 import org.openrewrite.properties.PropertiesVisitor;
 import org.openrewrite.properties.tree.Properties;
 import org.openrewrite.yaml.YamlVisitor;
@@ -10,16 +15,32 @@ import org.openrewrite.yaml.tree.Yaml;
 
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Collects the properties of each scanned file. The accumulator is thread-safe, so source files can be scanned
+ * concurrently: the properties of a file are gathered into a map local to the scan of that file, which is only published
+ * to the accumulator once complete.
+ */
 @Value
 @Accessors(fluent = true)
 public class PropertiesAccumulator {
 
-  Map<Path, Map<String, Object>> pathToProperties = new HashMap<>();
-  Map<Path, SourceFile>  pathToSourceFile = new HashMap<>();
+  private static final int SEGMENTS_CAPACITY = 1 << 12;
+
+  Map<Path, PropertyTrie> pathToProperties = new ConcurrentHashMap<>();
+  Map<Path, SourceFile>  pathToSourceFile = new ConcurrentHashMap<>();
 
   boolean sorted;
 
+  /**
+   * Key segments shared by the property tries of all files, as most of them repeat from one file to the next.
+   */
+  @Getter(AccessLevel.NONE)
+  @EqualsAndHashCode.Exclude
+  @ToString.Exclude
+  StringInterner segments = new StringInterner(SEGMENTS_CAPACITY, StringInterner.DEFAULT_MAX_LENGTH);
+
   /**
    * @param sorted If true, the properties will be sorted by key, otherwise the properties will be maintained in the
    *               order they were found.
@@ -29,79 +50,59 @@ public class PropertiesAccumulator {
   }
 
   public void collectSourceFileProperties(Properties.File sourceFile) {
-    Map<String, Object> propertyMap = sorted ? new TreeMap<>() : new LinkedHashMap<>();
+    PropertyTrie properties = newPropertyTrie();
     List<String> accumulatedComments = new ArrayList<>();
-    new PropertiesVisitor<Map<String, Object>>() {
+    new PropertiesVisitor<PropertyTrie>() {
       @Override
-      public org.openrewrite.properties.tree.Properties visitEntry(Properties.Entry entry, Map<String, Object> stringObjectMap) {
-        addProperty(stringObjectMap, Arrays.asList(entry.getKey().split("\\.")), entry.getValue().getText(), new ArrayList<>(accumulatedComments));
+      public org.openrewrite.properties.tree.Properties visitEntry(Properties.Entry entry, PropertyTrie propertyTrie) {
+        propertyTrie.put(entry.getKey(), entry.getValue().getText(), accumulatedComments);
         accumulatedComments.clear();
-        return super.visitEntry(entry, stringObjectMap);
+        return super.visitEntry(entry, propertyTrie);
       }
 
       @Override
-      public Properties visitComment(Properties.Comment comment, Map<String, Object> stringObjectMap) {
+      public Properties visitComment(Properties.Comment comment, PropertyTrie propertyTrie) {
         accumulatedComments.add(comment.getMessage());
-        return super.visitComment(comment, stringObjectMap);
+        return super.visitComment(comment, propertyTrie);
       }
-    }.visit(sourceFile, propertyMap);
-    pathToProperties.put(sourceFile.getSourcePath(), propertyMap);
+    }.visit(sourceFile, properties);
+    properties.trimToSize();
+    pathToProperties.put(sourceFile.getSourcePath(), properties);
   }
 
   public void collectSourceFileProperties(Yaml.Documents sourceFile) {
-    Map<String, Object> propertyMap = sorted ? new TreeMap<>() : new LinkedHashMap<>();
+    PropertyTrie properties = newPropertyTrie();
     List<String> accumulatedComments = new ArrayList<>();
-    new YamlVisitor<Map<String, Object>>() {
-      private final Deque<String> path = new ArrayDeque<>();
+    new YamlVisitor<PropertyTrie>() {
+      private final List<String> path = new ArrayList<>();
 
       @Override
-      public Yaml visitMapping(Yaml.Mapping mapping, Map<String, Object> stringObjectMap) {
+      public Yaml visitMapping(Yaml.Mapping mapping, PropertyTrie propertyTrie) {
         accumulatedComments.addAll(YamlConverterUtils.extractComments(mapping.getPrefix()));
-        return super.visitMapping(mapping, stringObjectMap);
+        return super.visitMapping(mapping, propertyTrie);
       }
 
       @Override
-      public Yaml visitMappingEntry(Yaml.Mapping.Entry entry, Map<String, Object> stringObjectMap) {
-        path.addLast(entry.getKey().getValue());
-        Yaml y = super.visitMappingEntry(entry, stringObjectMap);
-        path.removeLast();
-        return y;
+      public Yaml visitMappingEntry(Yaml.Mapping.Entry entry, PropertyTrie propertyTrie) {
+        // Only the value is visited, the key is a scalar too and must not be collected as a value
+        path.add(entry.getKey().getValue());
+        visit(entry.getValue(), propertyTrie);
+        path.remove(path.size() - 1);
+        return entry;
       }
 
       @Override
-      public Yaml visitScalar(Yaml.Scalar scalar, Map<String, Object> stringObjectMap) {
-        addProperty(propertyMap, new ArrayList<>(path), scalar.getValue(), Collections.unmodifiableList(accumulatedComments));
+      public Yaml visitScalar(Yaml.Scalar scalar, PropertyTrie propertyTrie) {
+        propertyTrie.put(path, scalar.getValue(), accumulatedComments);
         accumulatedComments.clear();
-        return super.visitScalar(scalar, stringObjectMap);
+        return super.visitScalar(scalar, propertyTrie);
       }
-    }.visit(sourceFile, propertyMap);
-    pathToProperties.put(sourceFile.getSourcePath(), propertyMap);
+    }.visit(sourceFile, properties);
+    properties.trimToSize();
+    pathToProperties.put(sourceFile.getSourcePath(), properties);
   }
 
-  private void addProperty(Map<String, Object> propertyMap, List<String> propertyParts, Object value, List<String> comments) {
-    Map<String, Object> currentMap = propertyMap;
-
-    Deque<String> path = new ArrayDeque<>();
-    for (Iterator<String> index = propertyParts.iterator(); index.hasNext(); ) {
-      String part = index.next();
-      if (index.hasNext()) {
-        path.addLast(part);
-        Object existing = currentMap.computeIfAbsent(part, k -> sorted ? new TreeMap<String,Object>() : new LinkedHashMap<String,Object>());
-
-        if (existing instanceof Map) {
-          //noinspection unchecked
-          currentMap = (Map<String, Object>) existing;
-        } else {
-          // Cannot create a path through a non-map value
-          throw new IllegalArgumentException(
-              "Cannot create property '" + String.join(".", propertyParts) + "' because '" +
-                  String.join(".", path)+ "' is not a map"
-          );
-        }
-      }
-    }
-    // Set the value at the leaf node
-    currentMap.put(propertyParts.get(propertyParts.size() - 1), new PropertyValue(comments, value));
+  private PropertyTrie newPropertyTrie() {
+    return new PropertyTrie(sorted, segments);
   }
-
 }
@@ -0,0 +1,278 @@
+package org.openrewrite.contrib.convert;
+
+import lombok.Value;
+
+import java.io.*;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * A persistent index of the fully-qualified property keys collected by {@link PropertiesAccumulator}, from both
+ * properties and YAML files, answering which files define the keys under a prefix without visiting the files again.
+ * <p>
+ * The index file holds every (key, source path, value) entry sorted by key and source path, followed by the offset of
+ * each entry. {@link #open(Path)} memory maps the file and only reads the source paths and the offset table, so a
+ * lookup is a binary search over the mapped entries. {@link #update(Path, PropertiesAccumulator, Collection)} rewrites
+ * the index with the entries of the files collected again, and replaces the file atomically.
+ * <p>
+ * The index is immutable and thread-safe.
+ */
+public class PropertyKeyIndex {
+
+  private static final int MAGIC = 0x504B4958; // "PKIX"
+  private static final int VERSION = 1;
+
+  private final ByteBuffer buffer;
+  private final List<Path> sourcePaths;
+  private final long offsetsPosition;
+  private final int size;
+
+  private PropertyKeyIndex(ByteBuffer buffer, List<Path> sourcePaths, long offsetsPosition, int size) {
+    this.buffer = buffer;
+    this.sourcePaths = sourcePaths;
+    this.offsetsPosition = offsetsPosition;
+    this.size = size;
+  }
+
+  /**
+   * @return The index in the file, or an empty index if the file does not exist
+   */
+  public static PropertyKeyIndex open(Path indexFile) {
+    if (!Files.exists(indexFile)) {
+      return new PropertyKeyIndex(ByteBuffer.allocate(0), Collections.emptyList(), 0, 0);
+    }
+    try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+      if (channel.size() > Integer.MAX_VALUE) {
+        throw new IllegalArgumentException("The property key index " + indexFile + " is larger than 2 GB");
+      }
+      ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      if (buffer.getInt() != MAGIC) {
+        throw new IllegalArgumentException("Not a property key index: " + indexFile);
+      }
+      int version = buffer.getInt();
+      if (version != VERSION) {
+        throw new IllegalArgumentException("Unsupported property key index version " + version);
+      }
+      int pathCount = buffer.getInt();
+      List<Path> sourcePaths = new ArrayList<>(pathCount);
+      for (int i = 0; i < pathCount; i++) {
+        sourcePaths.add(Paths.get(readString(buffer)));
+      }
+      long offsetsPosition = buffer.getLong(buffer.limit() - Long.BYTES);
+      int size = buffer.getInt((int) offsetsPosition - Integer.BYTES);
+      return new PropertyKeyIndex(buffer, Collections.unmodifiableList(sourcePaths), offsetsPosition, size);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * Writes a new index with the properties of every file collected by the accumulator.
+   *
+   * @return The new index
+   */
+  public static PropertyKeyIndex write(Path indexFile, PropertiesAccumulator acc) {
+    List<Entry> entries = new ArrayList<>();
+    collect(acc, entries);
+    return write(indexFile, entries);
+  }
+
+  /**
+   * Updates the index incrementally: the entries of the files collected by the accumulator replace the entries the index
+   * had for them, the entries of the deleted files are dropped, and the entries of every other file are kept.
+   *
+   * @param indexFile    The index file, which is created if it does not exist yet
+   * @param acc          The properties of the files that were added or changed since the index was written
+   * @param deletedPaths The source paths of the files that no longer exist
+   * @return The updated index
+   */
+  public static PropertyKeyIndex update(Path indexFile, PropertiesAccumulator acc, Collection<Path> deletedPaths) {
+    Set<Path> replaced = new HashSet<>(acc.pathToProperties().keySet());
+    replaced.addAll(deletedPaths);
+    PropertyKeyIndex current = open(indexFile);
+    List<Entry> entries = new ArrayList<>(current.size());
+    for (int i = 0; i < current.size(); i++) {
+      Entry entry = current.entry(i);
+      if (!replaced.contains(entry.getSourcePath())) {
+        entries.add(entry);
+      }
+    }
+    collect(acc, entries);
+    return write(indexFile, entries);
+  }
+
+  /**
+   * @return The number of entries in the index
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return The source paths of every file with at least one property in the index
+   */
+  public List<Path> getSourcePaths() {
+    return sourcePaths;
+  }
+
+  /**
+   * Finds the properties with the key or nested under it, so that {@code spring.datasource} finds
+   * {@code spring.datasource.url} but not {@code spring.datasource-extra.url}. A trailing {@code .*} is ignored.
+   *
+   * @return The matching entries, sorted by key and source path
+   */
+  public List<Entry> find(String keyPrefix) {
+    String key = keyPrefix.endsWith(".*") ? keyPrefix.substring(0, keyPrefix.length() - 2) : keyPrefix;
+    List<Entry> found = new ArrayList<>();
+    for (int i = lowerBound(key); i < size && readKey(i).equals(key); i++) {
+      found.add(entry(i));
+    }
+    String nested = key + ".";
+    for (int i = lowerBound(nested); i < size && readKey(i).startsWith(nested); i++) {
+      found.add(entry(i));
+    }
+    return found;
+  }
+
+  /**
+   * @return The source paths of the files that define a property with the key or nested under it, see {@link #find}
+   */
+  public Set<Path> findSourcePaths(String keyPrefix) {
+    Set<Path> found = new TreeSet<>();
+    for (Entry entry : find(keyPrefix)) {
+      found.add(entry.getSourcePath());
+    }
+    return found;
+  }
+
+  /**
+   * @return The index of the first entry whose key is not less than the key
+   */
+  private int lowerBound(String key) {
+    int low = 0;
+    int high = size;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (readKey(mid).compareTo(key) < 0) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  private ByteBuffer entryBuffer(int i) {
+    ByteBuffer entry = buffer.duplicate();
+    ((Buffer) entry).position((int) entry.getLong((int) offsetsPosition + i * Long.BYTES));
+    return entry;
+  }
+
+  private String readKey(int i) {
+    return readString(entryBuffer(i));
+  }
+
+  private Entry entry(int i) {
+    ByteBuffer entry = entryBuffer(i);
+    String key = readString(entry);
+    Path sourcePath = sourcePaths.get(entry.getInt());
+    return new Entry(key, sourcePath, readString(entry));
+  }
+
+  private static void collect(PropertiesAccumulator acc, List<Entry> entries) {
+    for (Map.Entry<Path, PropertyTrie> properties : acc.pathToProperties().entrySet()) {
+      collect(properties.getValue().getRoot(), new StringBuilder(), properties.getKey(), entries);
+    }
+  }
+
+  private static void collect(PropertyTrie.Node node, StringBuilder key, Path sourcePath, List<Entry> entries) {
+    int length = key.length();
+    for (PropertyTrie.Node child : node.getChildren()) {
+      if (length > 0) {
+        key.append('.');
+      }
+      key.append(child.getSegment());
+      if (child.getValue() == null) {
+        collect(child, key, sourcePath, entries);
+      } else {
+        entries.add(new Entry(key.toString(), sourcePath, String.valueOf(child.getValue())));
+      }
+      key.setLength(length);
+    }
+  }
+
+  private static PropertyKeyIndex write(Path indexFile, List<Entry> entries) {
+    entries.sort(Comparator.comparing(Entry::getKey).thenComparing(entry -> entry.getSourcePath().toString()));
+    Map<Path, Integer> pathIndexes = new LinkedHashMap<>();
+    for (Entry entry : entries) {
+      pathIndexes.putIfAbsent(entry.getSourcePath(), pathIndexes.size());
+    }
+    try {
+      Path parent = indexFile.toAbsolutePath().getParent();
+      Files.createDirectories(parent);
+      Path temp = Files.createTempFile(parent, indexFile.getFileName().toString(), ".tmp");
+      try {
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+          output.writeInt(MAGIC);
+          output.writeInt(VERSION);
+          output.writeInt(pathIndexes.size());
+          for (Path sourcePath : pathIndexes.keySet()) {
+            writeString(output, sourcePath.toString());
+          }
+          // The size of a data output stream stops at Integer.MAX_VALUE, which is also the limit of a single mapping
+          long[] offsets = new long[entries.size()];
+          for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            offsets[i] = output.size();
+            writeString(output, entry.getKey());
+            output.writeInt(pathIndexes.get(entry.getSourcePath()));
+            writeString(output, entry.getValue());
+          }
+          output.writeInt(entries.size());
+          long offsetsPosition = output.size();
+          if (offsetsPosition + (long) offsets.length * Long.BYTES + Long.BYTES > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The property key index " + indexFile + " would be larger than 2 GB");
+          }
+          for (long offset : offsets) {
+            output.writeLong(offset);
+          }
+          output.writeLong(offsetsPosition);
+        }
+        Files.move(temp, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } finally {
+        Files.deleteIfExists(temp);
+      }
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+    return open(indexFile);
+  }
+
+  private static void writeString(DataOutput output, String value) throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    output.writeInt(bytes.length);
+    output.write(bytes);
+  }
+
+  private static String readString(ByteBuffer buffer) {
+    byte[] bytes = new byte[buffer.getInt()];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  @Value
+  public static class Entry {
+    /**
+     * The fully-qualified property key.
+     */
+    String key;
+
+    Path sourcePath;
+
+    String value;
+  }
+}
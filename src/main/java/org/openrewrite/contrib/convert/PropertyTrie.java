@@ -0,0 +1,295 @@
+package org.openrewrite.contrib.convert;
+
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.contrib.serialization.StringInterner;
+
+import java.util.*;
+
+/**
+ * The properties of one file, as a tree keyed by the segments of the dotted property keys. Each node keeps its children
+ * in an array, either in insertion order or sorted by segment, and a property without comments shares one empty
+ * comment list. Segment strings can be shared between tries through a {@link StringInterner}.
+ */
+public class PropertyTrie {
+
+  private static final Node[] NO_CHILDREN = new Node[0];
+
+  private final boolean sorted;
+  private final @Nullable StringInterner segments;
+  private final Node root = new Node("");
+
+  /**
+   * @param sorted If true, the children of each node are iterated in key order, otherwise in the order they were added
+   */
+  public PropertyTrie(boolean sorted) {
+    this(sorted, null);
+  }
+
+  /**
+   * @param sorted   If true, the children of each node are iterated in key order, otherwise in the order they were added
+   * @param segments If not null, the pool the key segments of new nodes are interned into
+   */
+  public PropertyTrie(boolean sorted, @Nullable StringInterner segments) {
+    this.sorted = sorted;
+    this.segments = segments;
+  }
+
+  public boolean isSorted() {
+    return sorted;
+  }
+
+  /**
+   * @return The node of the empty key, whose children are the top level properties
+   */
+  public Node getRoot() {
+    return root;
+  }
+
+  public boolean isEmpty() {
+    return root.childCount == 0;
+  }
+
+  /**
+   * Sets the value of a property, replacing any value or nested properties the key had before. The key is split on
+   * dots in place, and like {@link String#split(String)} trailing empty segments are dropped. Only the segments of new
+   * nodes are copied out of the key.
+   *
+   * @param key      The dotted property key
+   * @param value    A string, or a list of strings, lists and nested tries
+   * @param comments The comments preceding the property, copied by the trie
+   * @throws IllegalArgumentException If a prefix of the key is a property with a value
+   */
+  public void put(String key, Object value, List<String> comments) {
+    int end = key.length();
+    while (end > 0 && key.charAt(end - 1) == '.') {
+      end--;
+    }
+    Node node = root;
+    int start = 0;
+    while (true) {
+      if (node.value != null) {
+        throw conflict(key.substring(0, end), key.substring(0, start - 1));
+      }
+      int dot = key.indexOf('.', start);
+      int segmentEnd = dot < 0 || dot > end ? end : dot;
+      node = node.getOrAddChild(key, start, segmentEnd, sorted, segments);
+      if (segmentEnd == end) {
+        break;
+      }
+      start = segmentEnd + 1;
+    }
+    node.setValue(value, comments);
+  }
+
+  /**
+   * Sets the value of a property, replacing any value or nested properties the key had before.
+   *
+   * @param keySegments The segments of the property key, which the trie does not retain
+   * @param value       A string, or a list of strings, lists and nested tries
+   * @param comments    The comments preceding the property, copied by the trie
+   * @throws IllegalArgumentException If a prefix of the key is a property with a value
+   */
+  public void put(List<String> keySegments, Object value, List<String> comments) {
+    Node node = root;
+    for (int i = 0; i < keySegments.size(); i++) {
+      if (node.value != null) {
+        throw conflict(String.join(".", keySegments), String.join(".", keySegments.subList(0, i)));
+      }
+      String segment = keySegments.get(i);
+      node = node.getOrAddChild(segment, 0, segment.length(), sorted, segments);
+    }
+    node.setValue(value, comments);
+  }
+
+  private static IllegalArgumentException conflict(String key, String prefix) {
+    return new IllegalArgumentException("Cannot create property '" + key + "' because '" + prefix + "' is not a map");
+  }
+
+  /**
+   * Shrinks the child arrays to their size, once no more properties are added.
+   */
+  public void trimToSize() {
+    root.trimToSize();
+  }
+
+  /**
+   * Compares a segment to {@code key.substring(start, end)} as {@link String#compareTo(String)} would.
+   */
+  private static int compare(String segment, String key, int start, int end) {
+    int length = Math.min(segment.length(), end - start);
+    for (int i = 0; i < length; i++) {
+      char c1 = segment.charAt(i);
+      char c2 = key.charAt(start + i);
+      if (c1 != c2) {
+        return c1 - c2;
+      }
+    }
+    return segment.length() - (end - start);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof PropertyTrie)) {
+      return false;
+    }
+    PropertyTrie that = (PropertyTrie) o;
+    return sorted == that.sorted && root.equals(that.root);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * Boolean.hashCode(sorted) + root.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return root.toString();
+  }
+
+  /**
+   * A key segment, which either has a value or nested properties.
+   */
+  public static class Node {
+    private final String segment;
+    private Node[] children = NO_CHILDREN;
+    private int childCount;
+    private @Nullable Object value;
+    private List<String> comments = Collections.emptyList();
+
+    private Node(String segment) {
+      this.segment = segment;
+    }
+
+    public String getSegment() {
+      return segment;
+    }
+
+    /**
+     * @return The value of the property, a string or a list, or null if the node has nested properties instead
+     */
+    public @Nullable Object getValue() {
+      return value;
+    }
+
+    public List<String> getComments() {
+      return comments;
+    }
+
+    public List<Node> getChildren() {
+      return Collections.unmodifiableList(Arrays.asList(children).subList(0, childCount));
+    }
+
+    public @Nullable Node getChild(String segment) {
+      // Nodes do not know whether their trie is sorted, a linear search finds the child either way
+      int index = indexOf(segment, 0, segment.length(), false);
+      return index < 0 ? null : children[index];
+    }
+
+    private void setValue(Object value, List<String> comments) {
+      this.children = NO_CHILDREN;
+      this.childCount = 0;
+      this.value = value;
+      this.comments = comments.isEmpty() ? Collections.emptyList() : Arrays.asList(comments.toArray(new String[0]));
+    }
+
+    /**
+     * @return The child for the segment {@code key.substring(start, end)}, added if there is none
+     */
+    private Node getOrAddChild(String key, int start, int end, boolean sorted, @Nullable StringInterner segments) {
+      int index = indexOf(key, start, end, sorted);
+      if (index >= 0) {
+        return children[index];
+      }
+      int insertAt = sorted ? -(index + 1) : childCount;
+      if (childCount == children.length) {
+        children = Arrays.copyOf(children, Math.max(2, childCount + (childCount >> 1)));
+      }
+      System.arraycopy(children, insertAt, children, insertAt + 1, childCount - insertAt);
+      Node child = new Node(segments == null ? key.substring(start, end) : segments.intern(key, start, end));
+      children[insertAt] = child;
+      childCount++;
+      return child;
+    }
+
+    /**
+     * @return The index of the child for the segment {@code key.substring(start, end)}, or when there is none,
+     * -(insertion point) - 1 in a sorted trie and -1 otherwise
+     */
+    private int indexOf(String key, int start, int end, boolean sorted) {
+      int length = end - start;
+      if (sorted) {
+        int low = 0;
+        int high = childCount - 1;
+        while (low <= high) {
+          int mid = (low + high) >>> 1;
+          int cmp = compare(children[mid].segment, key, start, end);
+          if (cmp < 0) {
+            low = mid + 1;
+          } else if (cmp > 0) {
+            high = mid - 1;
+          } else {
+            return mid;
+          }
+        }
+        return -(low + 1);
+      }
+      for (int i = 0; i < childCount; i++) {
+        String segment = children[i].segment;
+        if (segment.length() == length && segment.regionMatches(0, key, start, length)) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    private void trimToSize() {
+      if (children.length != childCount) {
+        children = childCount == 0 ? NO_CHILDREN : Arrays.copyOf(children, childCount);
+      }
+      for (int i = 0; i < childCount; i++) {
+        children[i].trimToSize();
+      }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Node)) {
+        return false;
+      }
+      Node that = (Node) o;
+      if (!segment.equals(that.segment) || !Objects.equals(value, that.value) || !comments.equals(that.comments) ||
+          childCount != that.childCount) {
+        return false;
+      }
+      for (int i = 0; i < childCount; i++) {
+        if (!children[i].equals(that.children[i])) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    public int hashCode() {
+      int hash = Objects.hash(segment, value, comments);
+      for (int i = 0; i < childCount; i++) {
+        hash = 31 * hash + children[i].hashCode();
+      }
+      return hash;
+    }
+
+    @Override
+    public String toString() {
+      if (value != null) {
+        return segment + "=" + value;
+      }
+      return segment + getChildren();
+    }
+  }
+}
@@ -0,0 +1,451 @@
+package org.openrewrite.contrib.convert;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * Converts properties files to YAML in bounded memory, for files too large to hold as a {@link PropertyTrie} and a
+ * rendered YAML string, such as i18n bundles or generated configuration with hundreds of thousands of keys.
+ * <p>
+ * The entries are read one at a time and sorted by key in runs of at most {@code maxEntriesInMemory} entries. A run is
+ * spilled to a temporary file whenever it is full, and the runs are then merged, so that the entries under each key
+ * prefix arrive together and the YAML is written to the output as it goes. At most {@code MAX_RUNS} runs are read at
+ * once, more runs are first merged into larger ones in as many passes as needed. The output is the same as
+ * {@link YamlConverterUtils#toYaml(PropertyTrie)} with sorted keys: the last value of a repeated key wins, and a key
+ * nested under a key that already has a value is rejected.
+ * <p>
+ * Keys and values are kept as they are written in the file, only line continuations are joined.
+ */
+public class StreamingYamlConverter {
+
+  public static final int DEFAULT_MAX_ENTRIES_IN_MEMORY = 100_000;
+
+  /**
+   * The number of runs merged at once, each of them holding an open file.
+   */
+  private static final int MAX_RUNS = 64;
+
+  private static final Comparator<Entry> ORDER = Comparator.<Entry, String>comparing(entry -> entry.key, StreamingYamlConverter::compareKeys)
+      .thenComparing(Comparator.comparingLong((Entry entry) -> entry.sequence).reversed());
+
+  private final int maxEntriesInMemory;
+  private final Path spillDirectory;
+
+  public StreamingYamlConverter() {
+    this(DEFAULT_MAX_ENTRIES_IN_MEMORY, Paths.get(System.getProperty("java.io.tmpdir")));
+  }
+
+  /**
+   * @param maxEntriesInMemory The number of entries sorted in memory before they are spilled to a temporary file
+   * @param spillDirectory     The directory of the temporary files
+   */
+  public StreamingYamlConverter(int maxEntriesInMemory, Path spillDirectory) {
+    if (maxEntriesInMemory <= 0) {
+      throw new IllegalArgumentException("The number of entries in memory must be positive but was " + maxEntriesInMemory);
+    }
+    this.maxEntriesInMemory = maxEntriesInMemory;
+    this.spillDirectory = spillDirectory;
+  }
+
+  /**
+   * Writes the YAML to a temporary file next to the YAML file, which is only moved in place once it is complete, so a
+   * failed conversion never leaves a truncated YAML file behind.
+   */
+  public void convert(Path propertiesFile, Path yamlFile) {
+    try {
+      Path directory = yamlFile.toAbsolutePath().getParent();
+      Path temp = Files.createTempFile(directory, yamlFile.getFileName().toString(), ".tmp");
+      try {
+        try (Reader properties = Files.newBufferedReader(propertiesFile, StandardCharsets.UTF_8);
+             Writer yaml = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+          convert(properties, yaml);
+        }
+        Files.move(temp, yamlFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } finally {
+        Files.deleteIfExists(temp);
+      }
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * Reads the properties and writes them as YAML. Neither the reader nor the writer is closed.
+   *
+   * @throws IllegalArgumentException If a key is nested under a key that already has a value
+   */
+  public void convert(Reader properties, Writer yaml) {
+    List<Path> runs = new ArrayList<>();
+    try {
+      List<Entry> buffer = new ArrayList<>();
+      EntryReader reader = new EntryReader(properties instanceof BufferedReader ?
+          (BufferedReader) properties : new BufferedReader(properties));
+      for (Entry entry = reader.next(); entry != null; entry = reader.next()) {
+        buffer.add(entry);
+        if (buffer.size() == maxEntriesInMemory) {
+          runs.add(spill(buffer));
+          buffer.clear();
+        }
+      }
+      buffer.sort(ORDER);
+      if (runs.isEmpty()) {
+        write(buffer.iterator(), yaml);
+      } else {
+        if (!buffer.isEmpty()) {
+          runs.add(spill(buffer));
+          buffer.clear();
+        }
+        while (runs.size() > MAX_RUNS) {
+          mergeFirstRuns(runs);
+        }
+        merge(runs, (entries, count) -> write(entries, yaml));
+      }
+      yaml.flush();
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    } finally {
+      for (Path run : runs) {
+        try {
+          Files.deleteIfExists(run);
+        } catch (IOException ignored) {
+          // The run is in a temporary directory
+        }
+      }
+    }
+  }
+
+  private Path spill(List<Entry> buffer) throws IOException {
+    buffer.sort(ORDER);
+    Path run = Files.createTempFile(spillDirectory, "properties", ".run");
+    try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run)))) {
+      output.writeLong(buffer.size());
+      for (Entry entry : buffer) {
+        entry.write(output);
+      }
+    }
+    return run;
+  }
+
+  /**
+   * Merges the first {@code MAX_RUNS} runs into a new run, added last, and deletes them. The order of the runs does not
+   * matter, entries are ordered by key and then by position in the file.
+   */
+  private void mergeFirstRuns(List<Path> runs) throws IOException {
+    List<Path> group = new ArrayList<>(runs.subList(0, MAX_RUNS));
+    Path merged = Files.createTempFile(spillDirectory, "properties", ".run");
+    runs.add(merged);
+    try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(merged)))) {
+      merge(group, (entries, count) -> {
+        output.writeLong(count);
+        while (entries.hasNext()) {
+          entries.next().write(output);
+        }
+      });
+    }
+    runs.subList(0, MAX_RUNS).clear();
+    for (Path run : group) {
+      Files.deleteIfExists(run);
+    }
+  }
+
+  private static void merge(List<Path> runs, MergeConsumer consumer) throws IOException {
+    List<DataInputStream> inputs = new ArrayList<>(runs.size());
+    try {
+      PriorityQueue<RunCursor> cursors = new PriorityQueue<>(runs.size(), (c1, c2) -> ORDER.compare(c1.current, c2.current));
+      long count = 0;
+      for (Path run : runs) {
+        DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(run)));
+        inputs.add(input);
+        RunCursor cursor = new RunCursor(input);
+        if (cursor.advance()) {
+          cursors.add(cursor);
+          count += cursor.remaining + 1;
+        }
+      }
+      consumer.accept(new Iterator<Entry>() {
+        @Override
+        public boolean hasNext() {
+          return !cursors.isEmpty();
+        }
+
+        @Override
+        public Entry next() {
+          RunCursor cursor = cursors.remove();
+          Entry entry = cursor.current;
+          try {
+            if (cursor.advance()) {
+              cursors.add(cursor);
+            }
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+          return entry;
+        }
+      }, count);
+    } finally {
+      for (DataInputStream input : inputs) {
+        input.close();
+      }
+    }
+  }
+
+  /**
+   * Writes the entries, sorted by key and with the latest first among equal keys, as YAML.
+   */
+  private static void write(Iterator<Entry> entries, Writer yaml) throws IOException {
+    List<String> open = new ArrayList<>();
+    Entry lastLeaf = null;
+    List<String> lastLeafSegments = Collections.emptyList();
+    StringBuilder line = new StringBuilder();
+    while (entries.hasNext()) {
+      Entry entry = entries.next();
+      List<String> segments = segments(entry.key);
+      if (lastLeaf != null && startsWith(segments, lastLeafSegments)) {
+        if (segments.size() > lastLeafSegments.size() && entry.sequence > lastLeaf.sequence) {
+          throw new IllegalArgumentException("Cannot create property '" + entry.key + "' because '" +
+              lastLeaf.key + "' is not a map");
+        }
+        // A repeated key, or a key replaced by a later value of one of its prefixes
+        continue;
+      }
+
+      int common = 0;
+      while (common < open.size() && common < segments.size() - 1 && open.get(common).equals(segments.get(common))) {
+        common++;
+      }
+      while (open.size() > common) {
+        open.remove(open.size() - 1);
+      }
+      line.setLength(0);
+      for (int depth = common; depth < segments.size() - 1; depth++) {
+        YamlConverterUtils.appendIndentation(depth, line);
+        line.append(segments.get(depth)).append(":\n");
+        open.add(segments.get(depth));
+      }
+      int depth = segments.size() - 1;
+      for (String comment : entry.comments) {
+        YamlConverterUtils.appendIndentation(depth, line);
+        line.append("#").append(comment).append("\n");
+      }
+      YamlConverterUtils.appendIndentation(depth, line);
+      line.append(segments.get(depth)).append(":");
+      YamlConverterUtils.formatString(entry.value, line);
+      yaml.append(line);
+
+      lastLeaf = entry;
+      lastLeafSegments = segments;
+    }
+  }
+
+  /**
+   * Splits a key like {@link PropertyTrie#put(String, Object, List)} does.
+   */
+  private static List<String> segments(String key) {
+    int end = key.length();
+    while (end > 0 && key.charAt(end - 1) == '.') {
+      end--;
+    }
+    List<String> segments = new ArrayList<>();
+    int start = 0;
+    while (true) {
+      int dot = key.indexOf('.', start);
+      int segmentEnd = dot < 0 || dot > end ? end : dot;
+      segments.add(key.substring(start, segmentEnd));
+      if (segmentEnd == end) {
+        return segments;
+      }
+      start = segmentEnd + 1;
+    }
+  }
+
+  private static boolean startsWith(List<String> segments, List<String> prefix) {
+    return segments.size() >= prefix.size() && segments.subList(0, prefix.size()).equals(prefix);
+  }
+
+  /**
+   * Compares keys segment by segment, so that a key sorts right before the keys nested under it and every key prefix
+   * is contiguous. This is the order of the keys of a sorted {@link PropertyTrie}.
+   */
+  private static int compareKeys(String key1, String key2) {
+    int length = Math.min(key1.length(), key2.length());
+    for (int i = 0; i < length; i++) {
+      char c1 = key1.charAt(i);
+      char c2 = key2.charAt(i);
+      if (c1 != c2) {
+        return c1 == '.' ? -1 : c2 == '.' ? 1 : c1 - c2;
+      }
+    }
+    return key1.length() - key2.length();
+  }
+
+  private static class Entry {
+    final String key;
+    final String value;
+    final List<String> comments;
+
+    /**
+     * The position of the entry in the file, so that the last of a repeated key wins.
+     */
+    final long sequence;
+
+    Entry(String key, String value, List<String> comments, long sequence) {
+      this.key = key;
+      this.value = value;
+      this.comments = comments;
+      this.sequence = sequence;
+    }
+
+    void write(DataOutputStream output) throws IOException {
+      writeString(output, key);
+      writeString(output, value);
+      output.writeLong(sequence);
+      output.writeInt(comments.size());
+      for (String comment : comments) {
+        writeString(output, comment);
+      }
+    }
+
+    static Entry read(DataInputStream input) throws IOException {
+      String key = readString(input);
+      String value = readString(input);
+      long sequence = input.readLong();
+      int commentCount = input.readInt();
+      List<String> comments = commentCount == 0 ? Collections.emptyList() : new ArrayList<>(commentCount);
+      for (int i = 0; i < commentCount; i++) {
+        comments.add(readString(input));
+      }
+      return new Entry(key, value, comments, sequence);
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      output.writeInt(bytes.length);
+      output.write(bytes);
+    }
+
+    private static String readString(DataInputStream input) throws IOException {
+      byte[] bytes = new byte[input.readInt()];
+      input.readFully(bytes);
+      return new String(bytes, StandardCharsets.UTF_8);
+    }
+  }
+
+  @FunctionalInterface
+  private interface MergeConsumer {
+    /**
+     * @param entries The merged entries, sorted by key and with the latest first among equal keys
+     * @param count   The number of entries
+     */
+    void accept(Iterator<Entry> entries, long count) throws IOException;
+  }
+
+  private static class RunCursor {
+    final DataInputStream input;
+    long remaining = -1;
+    Entry current;
+
+    RunCursor(DataInputStream input) {
+      this.input = input;
+    }
+
+    boolean advance() throws IOException {
+      if (remaining < 0) {
+        remaining = input.readLong();
+      }
+      if (remaining == 0) {
+        return false;
+      }
+      remaining--;
+      current = Entry.read(input);
+      return true;
+    }
+  }
+
+  /**
+   * Reads the entries of a properties file with their preceding comments, one logical line at a time.
+   */
+  private static class EntryReader {
+    final BufferedReader reader;
+    final List<String> comments = new ArrayList<>();
+    long sequence;
+
+    EntryReader(BufferedReader reader) {
+      this.reader = reader;
+    }
+
+    Entry next() throws IOException {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        int start = skipWhitespace(line, 0);
+        if (start == line.length()) {
+          continue;
+        }
+        char first = line.charAt(start);
+        if (first == '#' || first == '!') {
+          comments.add(line.substring(start + 1));
+          continue;
+        }
+        StringBuilder logical = new StringBuilder(line.length()).append(line, start, line.length());
+        while (endsWithContinuation(logical)) {
+          logical.setLength(logical.length() - 1);
+          String continuation = reader.readLine();
+          if (continuation == null) {
+            break;
+          }
+          logical.append(continuation, skipWhitespace(continuation, 0), continuation.length());
+        }
+        Entry entry = parse(logical.toString());
+        comments.clear();
+        return entry;
+      }
+      return null;
+    }
+
+    private Entry parse(String line) {
+      int keyEnd = 0;
+      while (keyEnd < line.length()) {
+        char c = line.charAt(keyEnd);
+        if (c == '\\') {
+          keyEnd += 2;
+          continue;
+        } else if (c == '=' || c == ':' || Character.isWhitespace(c)) {
+          break;
+        }
+        keyEnd++;
+      }
+      keyEnd = Math.min(keyEnd, line.length());
+      int valueStart = skipWhitespace(line, keyEnd);
+      if (valueStart < line.length() && (line.charAt(valueStart) == '=' || line.charAt(valueStart) == ':')) {
+        valueStart = skipWhitespace(line, valueStart + 1);
+      }
+      // Trailing dots are dropped as PropertyTrie#put drops them, so that "a." sorts and merges as the same key as "a"
+      int normalizedKeyEnd = keyEnd;
+      while (normalizedKeyEnd > 0 && line.charAt(normalizedKeyEnd - 1) == '.') {
+        normalizedKeyEnd--;
+      }
+      List<String> entryComments = comments.isEmpty() ? Collections.emptyList() : new ArrayList<>(comments);
+      return new Entry(line.substring(0, normalizedKeyEnd), line.substring(valueStart), entryComments, sequence++);
+    }
+
+    private static boolean endsWithContinuation(CharSequence line) {
+      int backslashes = 0;
+      for (int i = line.length() - 1; i >= 0 && line.charAt(i) == '\\'; i--) {
+        backslashes++;
+      }
+      return backslashes % 2 == 1;
+    }
+
+    private static int skipWhitespace(String line, int from) {
+      int i = from;
+      while (i < line.length() && Character.isWhitespace(line.charAt(i))) {
+        i++;
+      }
+      return i;
+    }
+  }
+}
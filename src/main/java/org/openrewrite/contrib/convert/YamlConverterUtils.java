@@ -1,14 +1,19 @@
 package org.openrewrite.contrib.convert;
 
 import org.jspecify.annotations.Nullable;
+import org.openrewrite.marker.Markers;
+import org.openrewrite.yaml.tree.Yaml;
 
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import static org.openrewrite.Tree.randomId;
+
 public class YamlConverterUtils {
   private static final String INDENT = "  ";
 
@@ -36,40 +41,34 @@ public class YamlConverterUtils {
   }
 
 
-  public static String toYaml(Map<String, Object> map) {
+  public static String toYaml(PropertyTrie properties) {
     //noinspection ConstantValue
-    if (map == null) {
-      throw new IllegalArgumentException("Map cannot be null");
+    if (properties == null) {
+      throw new IllegalArgumentException("Properties cannot be null");
     }
     StringBuilder yaml = new StringBuilder();
-    convertMapToYaml(map, 0, yaml);
+    convertNodeToYaml(properties.getRoot(), 0, yaml);
     return yaml.toString();
   }
 
-  private static void convertMapToYaml(Map<String, Object> map, int depth, StringBuilder yaml) {
-    for (Map.Entry<String, Object> entry : map.entrySet()) {
-      Object value = entry.getValue();
-      if (value instanceof PropertyValue) {
-        for (String comment : ((PropertyValue) value).getComments()) {
-          appendIndentation(depth, yaml);
-          yaml.append("#").append(comment).append("\n");
-        }
+  private static void convertNodeToYaml(PropertyTrie.Node node, int depth, StringBuilder yaml) {
+    for (PropertyTrie.Node child : node.getChildren()) {
+      for (String comment : child.getComments()) {
+        appendIndentation(depth, yaml);
+        yaml.append("#").append(comment).append("\n");
       }
       appendIndentation(depth, yaml);
-      yaml.append(entry.getKey()).append(":");
+      yaml.append(child.getSegment()).append(":");
 
-      if (value instanceof PropertyValue) {
-        Object propertyValue = ((PropertyValue) value).getValue();
-        if (propertyValue instanceof String) {
-          formatString((String) propertyValue, yaml);
-        } else {
-          formatList((List<?>) propertyValue, depth + 1, yaml);
-        }
-      } else if (value instanceof Map) {
+      Object value = child.getValue();
+      if (value == null) {
+        yaml.append("\n");
+        convertNodeToYaml(child, depth + 1, yaml);
+      } else if (value instanceof String) {
+        formatString((String) value, yaml);
+      } else if (value instanceof List) {
         yaml.append("\n");
-        @SuppressWarnings("unchecked")
-        Map<String, Object> nestedMap = (Map<String, Object>) value;
-        convertMapToYaml(nestedMap, depth + 1, yaml);
+        formatList((List<?>) value, depth + 1, yaml);
       } else {
         throw new IllegalArgumentException("Unsupported value type: " + value.getClass());
       }
@@ -79,24 +78,33 @@ public class YamlConverterUtils {
   private static void formatList(List<?> list, int depth, StringBuilder yaml) {
     for (Object item : list) {
       appendIndentation(depth, yaml);
-      yaml.append("- ");
-      if (item instanceof Map) {
+      yaml.append("-");
+      if (item instanceof PropertyTrie) {
         yaml.append("\n");
-        @SuppressWarnings("unchecked")
-        Map<String, Object> mapItem = (Map<String, Object>) item;
-        convertMapToYaml(mapItem, depth + 1, yaml);
+        convertNodeToYaml(((PropertyTrie) item).getRoot(), depth + 1, yaml);
       } else if (item instanceof List) {
         yaml.append("\n");
         formatList((List<?>) item, depth + 1, yaml);
       } else if (item instanceof String) {
         formatString((String) item, yaml);
       } else {
-        yaml.append(item).append("\n");
+        yaml.append(" ").append(item).append("\n");
       }
     }
   }
 
-  private static void formatString(String value, StringBuilder yaml) {
+  static void formatString(String value, StringBuilder yaml) {
+    Yaml.Scalar.Style style = scalarStyle(value);
+    if (style == Yaml.Scalar.Style.SINGLE_QUOTED) {
+      yaml.append(" '").append(value).append("'\n");
+    } else if (style == Yaml.Scalar.Style.DOUBLE_QUOTED) {
+      yaml.append(" \"").append(value).append("\"\n");
+    } else {
+      yaml.append(" ").append(value).append("\n");
+    }
+  }
+
+  private static Yaml.Scalar.Style scalarStyle(String value) {
     boolean needsQuotes = value.isEmpty() ||
         value.contains("\"") ||
         value.contains("'") ||
@@ -107,17 +115,102 @@ public class YamlConverterUtils {
         value.endsWith(" ");
 
     if (needsQuotes) {
-      if (value.contains("\"")) {
-        yaml.append(" '").append(value).append("'\n");
-      } else {
-        yaml.append(" \"").append(value).append("\"\n");
+      return value.contains("\"") ? Yaml.Scalar.Style.SINGLE_QUOTED : Yaml.Scalar.Style.DOUBLE_QUOTED;
+    }
+    return Yaml.Scalar.Style.PLAIN;
+  }
+
+  /**
+   * Builds the YAML source file for the properties directly, without rendering them to text and parsing them back. The
+   * result prints exactly as {@link #toYaml(PropertyTrie)}, with the comments of each property in the prefix of its
+   * entry.
+   * @param sourcePath The path of the YAML source file
+   * @param properties The properties, as collected by {@link PropertiesAccumulator}
+   * @return A YAML source file with a single document
+   */
+  public static Yaml.Documents toYamlDocuments(Path sourcePath, PropertyTrie properties) {
+    //noinspection ConstantValue
+    if (properties == null) {
+      throw new IllegalArgumentException("Properties cannot be null");
+    }
+    DocumentBuilder builder = new DocumentBuilder();
+    Yaml.Mapping mapping = builder.mapping(properties.getRoot(), 0);
+    Yaml.Document document = new Yaml.Document(randomId(), "", Markers.EMPTY, false, mapping,
+        new Yaml.Document.End(randomId(), builder.atStart ? "" : "\n", Markers.EMPTY, false));
+    return new Yaml.Documents(randomId(), Markers.EMPTY, sourcePath, null, StandardCharsets.UTF_8.name(), false, null,
+        Collections.singletonList(document));
+  }
+
+  /**
+   * Builds the elements of a document in the order they are printed. The line break that ends a line belongs to the
+   * prefix of the element on the next line, so every element but the first starts its prefix with one.
+   */
+  private static class DocumentBuilder {
+    boolean atStart = true;
+
+    Yaml.Mapping mapping(PropertyTrie.Node node, int depth) {
+      List<PropertyTrie.Node> children = node.getChildren();
+      List<Yaml.Mapping.Entry> entries = new ArrayList<>(children.size());
+      for (PropertyTrie.Node child : children) {
+        StringBuilder prefix = new StringBuilder();
+        newLine(prefix);
+        for (String comment : child.getComments()) {
+          appendIndentation(depth, prefix);
+          prefix.append("#").append(comment).append("\n");
+        }
+        appendIndentation(depth, prefix);
+        Yaml.Scalar key = new Yaml.Scalar(randomId(), "", Markers.EMPTY, Yaml.Scalar.Style.PLAIN, null, child.getSegment());
+
+        Object value = child.getValue();
+        Yaml.Block block;
+        if (value == null) {
+          block = mapping(child, depth + 1);
+        } else if (value instanceof String) {
+          block = scalar((String) value);
+        } else if (value instanceof List) {
+          block = sequence((List<?>) value, depth + 1);
+        } else {
+          throw new IllegalArgumentException("Unsupported value type: " + value.getClass());
+        }
+        entries.add(new Yaml.Mapping.Entry(randomId(), prefix.toString(), Markers.EMPTY, key, "", block));
       }
-    } else {
-      yaml.append(" ").append(value).append("\n");
+      return new Yaml.Mapping(randomId(), Markers.EMPTY, null, entries, null, null);
+    }
+
+    private Yaml.Sequence sequence(List<?> list, int depth) {
+      List<Yaml.Sequence.Entry> entries = new ArrayList<>(list.size());
+      for (Object item : list) {
+        StringBuilder prefix = new StringBuilder();
+        newLine(prefix);
+        appendIndentation(depth, prefix);
+        Yaml.Block block;
+        if (item instanceof PropertyTrie) {
+          block = mapping(((PropertyTrie) item).getRoot(), depth + 1);
+        } else if (item instanceof List) {
+          block = sequence((List<?>) item, depth + 1);
+        } else if (item instanceof String) {
+          block = scalar((String) item);
+        } else {
+          block = new Yaml.Scalar(randomId(), " ", Markers.EMPTY, Yaml.Scalar.Style.PLAIN, null, String.valueOf(item));
+        }
+        entries.add(new Yaml.Sequence.Entry(randomId(), prefix.toString(), Markers.EMPTY, block, true, null));
+      }
+      return new Yaml.Sequence(randomId(), Markers.EMPTY, null, entries, null, null);
+    }
+
+    private Yaml.Scalar scalar(String value) {
+      return new Yaml.Scalar(randomId(), " ", Markers.EMPTY, scalarStyle(value), null, value);
+    }
+
+    private void newLine(StringBuilder prefix) {
+      if (!atStart) {
+        prefix.append("\n");
+      }
+      atStart = false;
     }
   }
 
-  private static void appendIndentation(int depth, StringBuilder yaml) {
+  static void appendIndentation(int depth, StringBuilder yaml) {
     for (int i = 0; i < depth; i++) {
       yaml.append(INDENT);
     }
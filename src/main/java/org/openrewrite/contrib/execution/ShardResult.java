@@ -0,0 +1,42 @@
+package org.openrewrite.contrib.execution;
+
+import lombok.Value;
+import org.openrewrite.DataTable;
+import org.openrewrite.Result;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The outcome of running a recipe over the source files of one shard.
+ */
+@Value
+public class ShardResult {
+  Path shard;
+
+  /**
+   * The number of source files loaded from the shard.
+   */
+  int sourceFiles;
+
+  /**
+   * The files changed, added or deleted by the recipe, empty if the shard failed.
+   */
+  List<Result> results;
+
+  Map<DataTable<?>, List<?>> dataTables;
+
+  /**
+   * The errors raised while loading the shard or running the recipe. A shard with errors may still have results, when
+   * the recipe recovered from them.
+   */
+  List<Throwable> errors;
+
+  Duration elapsed;
+
+  public boolean isFailed() {
+    return !errors.isEmpty();
+  }
+}
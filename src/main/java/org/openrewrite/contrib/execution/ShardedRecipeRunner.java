@@ -0,0 +1,188 @@
+package org.openrewrite.contrib.execution;
+
+import org.openrewrite.*;
+import org.openrewrite.contrib.serialization.LstArchive;
+import org.openrewrite.contrib.serialization.LstArchiveWriter;
+import org.openrewrite.contrib.serialization.LstSerializer;
+import org.openrewrite.internal.InMemoryLargeSourceSet;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+ * Runs a recipe over shards of serialized source files, such as one shard per repository. A shard is either an archive
+ * written by {@link LstArchiveWriter} or a list of source files written by
+ * {@link LstSerializer#serialize(List, OutputStream)}.
+ * <p>
+ * Shards are loaded and run concurrently on a work-stealing pool, each one through {@link Recipe#run} with its own
+ * {@link ExecutionContext}, so that the scan, generate and edit phases of a {@link ScanningRecipe} see the source files
+ * of one shard. At most {@code maxPendingShards} shards are loading, running or waiting for their result to be consumed
+ * at once, and the next shard is only loaded once an earlier result has been consumed. This bounds the memory held by
+ * source files and results, however many shards there are.
+ * <p>
+ * Results are passed to the consumer on the calling thread as shards complete, and the data table rows of every shard
+ * are merged in shard order.
+ */
+public class ShardedRecipeRunner {
+
+  private final LstSerializer serializer;
+  private final int parallelism;
+  private final int maxPendingShards;
+
+  /**
+   * A runner using every processor, with twice as many pending shards so that workers do not wait on the consumer.
+   */
+  public ShardedRecipeRunner(LstSerializer serializer) {
+    this(serializer, Runtime.getRuntime().availableProcessors(), 2 * Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * @param serializer       A serializer configured with the same format the shards were written with
+   * @param parallelism      The number of shards run concurrently
+   * @param maxPendingShards The number of shards loaded but not consumed yet, at least the parallelism
+   */
+  public ShardedRecipeRunner(LstSerializer serializer, int parallelism, int maxPendingShards) {
+    if (parallelism <= 0) {
+      throw new IllegalArgumentException("The parallelism must be positive but was " + parallelism);
+    }
+    if (maxPendingShards < parallelism) {
+      throw new IllegalArgumentException("The maximum number of pending shards must be at least the parallelism " +
+                                         parallelism + " but was " + maxPendingShards);
+    }
+    this.serializer = serializer;
+    this.parallelism = parallelism;
+    this.maxPendingShards = maxPendingShards;
+  }
+
+  /**
+   * Runs the recipe over every shard. A shard that fails to load or run is reported with its errors, and does not stop
+   * the other shards.
+   *
+   * @param recipe   The recipe, shared by every shard, whose data tables are the keys of the merged rows
+   * @param shards   The shard files
+   * @param consumer Called with the result of each shard as it completes, one at a time
+   * @return The merged data tables and the failed shards
+   */
+  public ShardedRun run(Recipe recipe, List<Path> shards, Consumer<ShardResult> consumer) {
+    ForkJoinPool pool = new ForkJoinPool(parallelism);
+    try {
+      CompletionService<IndexedResult> completion = new ExecutorCompletionService<>(pool);
+      Map<Integer, Map<DataTable<?>, List<?>>> dataTablesByShard = new TreeMap<>();
+      List<Path> failedShards = new ArrayList<>();
+      long results = 0;
+      int submitted = 0;
+      int consumed = 0;
+      while (consumed < shards.size()) {
+        while (submitted < shards.size() && submitted - consumed < maxPendingShards) {
+          int index = submitted++;
+          Path shard = shards.get(index);
+          completion.submit(() -> new IndexedResult(index, runShard(recipe, shard)));
+        }
+        IndexedResult completed = take(completion);
+        ShardResult result = completed.result;
+        dataTablesByShard.put(completed.index, result.getDataTables());
+        results += result.getResults().size();
+        if (result.isFailed()) {
+          failedShards.add(result.getShard());
+        }
+        consumer.accept(result);
+        consumed++;
+      }
+      return new ShardedRun(shards.size(), results, failedShards, merge(dataTablesByShard.values()));
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  /**
+   * Loads a shard and runs the recipe over its source files.
+   */
+  public ShardResult runShard(Recipe recipe, Path shard) {
+    long start = System.nanoTime();
+    // Recipes may report errors from the threads they fork
+    List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
+    int sourceFiles = 0;
+    try {
+      List<SourceFile> loaded = load(shard);
+      sourceFiles = loaded.size();
+      ExecutionContext ctx = new InMemoryExecutionContext(errors::add);
+      RecipeRun run = recipe.run(new InMemoryLargeSourceSet(loaded), ctx);
+      return new ShardResult(shard, sourceFiles, run.getChangeset().getAllResults(), run.getDataTables(),
+          copy(errors), Duration.ofNanos(System.nanoTime() - start));
+    } catch (RuntimeException e) {
+      errors.add(e);
+      return new ShardResult(shard, sourceFiles, Collections.emptyList(), Collections.emptyMap(), copy(errors),
+          Duration.ofNanos(System.nanoTime() - start));
+    }
+  }
+
+  private List<SourceFile> load(Path shard) {
+    if (LstArchive.isArchive(shard)) {
+      try (LstArchive archive = LstArchive.open(serializer, shard)) {
+        return archive.readAll();
+      }
+    }
+    try (InputStream input = new BufferedInputStream(Files.newInputStream(shard))) {
+      return serializer.deserialize(input);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static IndexedResult take(CompletionService<IndexedResult> completion) {
+    try {
+      return completion.take().get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    } catch (ExecutionException e) {
+      // runShard reports its exceptions in the result, so only errors end up here
+      throw new RuntimeException(e.getCause());
+    }
+  }
+
+  private static List<Throwable> copy(List<Throwable> errors) {
+    synchronized (errors) {
+      return new ArrayList<>(errors);
+    }
+  }
+
+  /**
+   * Merges the rows of each shard by data table name, as recipes that create their data tables per run do not share
+   * data table instances between shards.
+   */
+  private static Map<DataTable<?>, List<?>> merge(Collection<Map<DataTable<?>, List<?>>> dataTablesByShard) {
+    Map<String, DataTable<?>> dataTablesByName = new LinkedHashMap<>();
+    Map<String, List<Object>> rowsByName = new LinkedHashMap<>();
+    for (Map<DataTable<?>, List<?>> dataTables : dataTablesByShard) {
+      for (Map.Entry<DataTable<?>, List<?>> dataTable : dataTables.entrySet()) {
+        String name = dataTable.getKey().getName();
+        dataTablesByName.putIfAbsent(name, dataTable.getKey());
+        rowsByName.computeIfAbsent(name, n -> new ArrayList<>()).addAll(dataTable.getValue());
+      }
+    }
+    Map<DataTable<?>, List<?>> merged = new LinkedHashMap<>();
+    for (Map.Entry<String, DataTable<?>> dataTable : dataTablesByName.entrySet()) {
+      merged.put(dataTable.getValue(), rowsByName.get(dataTable.getKey()));
+    }
+    return merged;
+  }
+
+  private static class IndexedResult {
+    final int index;
+    final ShardResult result;
+
+    IndexedResult(int index, ShardResult result) {
+      this.index = index;
+      this.result = result;
+    }
+  }
+}
@@ -0,0 +1,42 @@
+package org.openrewrite.contrib.execution;
+
+import lombok.Value;
+import org.openrewrite.DataTable;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The merged outcome of running a recipe over every shard.
+ */
+@Value
+public class ShardedRun {
+  int shards;
+
+  /**
+   * The number of results of every shard.
+   */
+  long results;
+
+  /**
+   * The shards whose loading or recipe run raised errors, see {@link ShardResult#getErrors()}.
+   */
+  List<Path> failedShards;
+
+  /**
+   * The rows of every shard, merged by data table name, in shard order.
+   */
+  Map<DataTable<?>, List<?>> dataTables;
+
+  @SuppressWarnings("unchecked")
+  public <E> List<E> getDataTableRows(String name) {
+    for (Map.Entry<DataTable<?>, List<?>> dataTable : dataTables.entrySet()) {
+      if (dataTable.getKey().getName().equals(name)) {
+        return (List<E>) dataTable.getValue();
+      }
+    }
+    return Collections.emptyList();
+  }
+}
@@ -0,0 +1,4 @@
+@NullMarked
+package org.openrewrite.contrib.execution;
+
+import org.jspecify.annotations.NullMarked;
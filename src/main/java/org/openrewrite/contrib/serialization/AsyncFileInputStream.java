@@ -0,0 +1,135 @@
+package org.openrewrite.contrib.serialization;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Reads from an asynchronous file channel through two pooled direct buffers: while decoding consumes one buffer, the next
+ * part of the file is read ahead into the other one. Closing the stream returns both buffers to the pool, but leaves the
+ * channel open.
+ */
+class AsyncFileInputStream extends InputStream {
+
+  private final AsynchronousFileChannel channel;
+  private ByteBuffer buffer = DirectBufferPool.acquire();
+  private ByteBuffer readAhead = DirectBufferPool.acquire();
+
+  /**
+   * The read into {@link #readAhead}, or null once the end of the file has been reached.
+   */
+  private @Nullable CompletableFuture<Integer> pendingRead;
+
+  private long position;
+  private boolean closed;
+
+  /**
+   * @param position The file position of the first byte to read
+   */
+  AsyncFileInputStream(AsynchronousFileChannel channel, long position) {
+    this.channel = channel;
+    this.position = position;
+    ((Buffer) buffer).flip();
+    pendingRead = readAhead();
+  }
+
+  @Override
+  public int read() throws IOException {
+    return fill() ? buffer.get() & 0xFF : -1;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    if (len == 0) {
+      return 0;
+    }
+    if (!fill()) {
+      return -1;
+    }
+    int count = Math.min(len, buffer.remaining());
+    buffer.get(b, off, count);
+    return count;
+  }
+
+  @Override
+  public int available() {
+    return buffer.remaining();
+  }
+
+  /**
+   * Once the current buffer is consumed, waits for the read ahead to complete, swaps the buffers and starts reading ahead
+   * into the consumed one.
+   *
+   * @return false once the end of the file has been reached
+   */
+  private boolean fill() throws IOException {
+    if (buffer.hasRemaining()) {
+      return true;
+    }
+    if (pendingRead == null) {
+      return false;
+    }
+    int count;
+    try {
+      count = pendingRead.join();
+    } catch (CompletionException e) {
+      pendingRead = null;
+      throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+    }
+    if (count < 0) {
+      pendingRead = null;
+      return false;
+    }
+    position += count;
+    ByteBuffer filled = readAhead;
+    ((Buffer) filled).flip();
+    readAhead = buffer;
+    buffer = filled;
+    pendingRead = readAhead();
+    return buffer.hasRemaining() || fill();
+  }
+
+  private CompletableFuture<Integer> readAhead() {
+    ((Buffer) readAhead).clear();
+    CompletableFuture<Integer> read = new CompletableFuture<>();
+    channel.read(readAhead, position, null, new CompletionHandler<Integer, Void>() {
+      @Override
+      public void completed(Integer count, Void attachment) {
+        read.complete(count);
+      }
+
+      @Override
+      public void failed(Throwable t, Void attachment) {
+        read.completeExceptionally(t);
+      }
+    });
+    return read;
+  }
+
+  @Override
+  public void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    ByteBuffer consumed = buffer;
+    ByteBuffer reading = readAhead;
+    DirectBufferPool.release(consumed);
+    if (pendingRead == null) {
+      DirectBufferPool.release(reading);
+    } else {
+      // The buffer being read into cannot be reused until the read is done
+      pendingRead.handle((ignored, t) -> {
+        DirectBufferPool.release(reading);
+        return null;
+      });
+    }
+  }
+}
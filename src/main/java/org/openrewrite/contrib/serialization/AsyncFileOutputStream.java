@@ -0,0 +1,127 @@
+package org.openrewrite.contrib.serialization;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Writes to an asynchronous file channel through two pooled direct buffers: while one buffer is being written to the
+ * file, the other one is filled, so that encoding only waits on the file when it gets a full buffer ahead of it. Closing
+ * the stream waits for the last write and returns both buffers to the pool, but leaves the channel open.
+ */
+class AsyncFileOutputStream extends OutputStream {
+
+  private final AsynchronousFileChannel channel;
+  private ByteBuffer buffer = DirectBufferPool.acquire();
+  private ByteBuffer writing = DirectBufferPool.acquire();
+  private CompletableFuture<Void> pendingWrite = CompletableFuture.completedFuture(null);
+  private long position;
+  private boolean closed;
+
+  /**
+   * @param position The file position at which the first byte is written
+   */
+  AsyncFileOutputStream(AsynchronousFileChannel channel, long position) {
+    this.channel = channel;
+    this.position = position;
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    if (!buffer.hasRemaining()) {
+      swap();
+    }
+    buffer.put((byte) b);
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    while (len > 0) {
+      if (!buffer.hasRemaining()) {
+        swap();
+      }
+      int count = Math.min(len, buffer.remaining());
+      buffer.put(b, off, count);
+      off += count;
+      len -= count;
+    }
+  }
+
+  /**
+   * Starts writing the filled buffer once the previous write has completed, and continues filling the other one.
+   */
+  private void swap() throws IOException {
+    awaitPendingWrite();
+    ByteBuffer filled = buffer;
+    ((Buffer) filled).flip();
+    buffer = writing;
+    ((Buffer) buffer).clear();
+    writing = filled;
+
+    long at = position;
+    position += filled.remaining();
+    CompletableFuture<Void> write = new CompletableFuture<>();
+    pendingWrite = write;
+    writeFully(filled, at, write);
+  }
+
+  private void writeFully(ByteBuffer source, long at, CompletableFuture<Void> write) {
+    channel.write(source, at, null, new CompletionHandler<Integer, Void>() {
+      @Override
+      public void completed(Integer count, Void attachment) {
+        if (source.hasRemaining()) {
+          writeFully(source, at + count, write);
+        } else {
+          write.complete(null);
+        }
+      }
+
+      @Override
+      public void failed(Throwable t, Void attachment) {
+        write.completeExceptionally(t);
+      }
+    });
+  }
+
+  private void awaitPendingWrite() throws IOException {
+    try {
+      pendingWrite.join();
+    } catch (CompletionException e) {
+      throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+    }
+  }
+
+  /**
+   * Writes everything buffered so far and waits for it to reach the channel.
+   */
+  @Override
+  public void flush() throws IOException {
+    if (buffer.position() > 0) {
+      swap();
+    }
+    awaitPendingWrite();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      flush();
+    } finally {
+      // A failed flush may leave a write in flight, the buffer it reads from cannot be reused until it is done
+      pendingWrite.handle((ignored, t) -> {
+        DirectBufferPool.release(writing);
+        DirectBufferPool.release(buffer);
+        return null;
+      });
+    }
+  }
+}
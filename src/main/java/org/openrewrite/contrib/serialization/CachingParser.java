@@ -0,0 +1,267 @@
+package org.openrewrite.contrib.serialization;
+
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.ParseExceptionResult;
+import org.openrewrite.Parser;
+import org.openrewrite.SourceFile;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.java.internal.JavaTypeCache;
+import org.openrewrite.style.NamedStyles;
+import org.openrewrite.tree.ParseError;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * A parser that looks up every input in a {@link LstParseCache} before parsing it, and only passes the inputs it did not
+ * find to the parser it wraps, as a single batch. The source files parsed successfully are then added to the cache.
+ * <p>
+ * The cache key is a SHA-256 hash of the source path, the source text and the parser configuration. The configuration
+ * covers the parser implementation, the version of OpenRewrite and of the JVM, and for a {@link JavaParser} the
+ * resolved classpath, each entry identified by its path, size and modification time, the classpath given as class
+ * bytes, the sources it {@link JavaParser.Builder#dependsOn depends on}, its styles and its charset. Anything else that
+ * changes what a parser produces must be added with {@link Builder#configuration(String, Object)}.
+ * <p>
+ * Type attribution of a Java source file also depends on the other sources parsed with it. Only the source file's own
+ * text is part of its key, so when the signature of a type declared in one source file changes, the cached source files
+ * that use it keep their previous attribution until their own text changes or the cache is cleared.
+ * <p>
+ * The types of the source files read from the cache are resolved through the type cache of the wrapped Java parser, so
+ * that they are the same instances as the types of the source files it parses.
+ */
+public class CachingParser implements Parser {
+
+  private final Parser delegate;
+  private final LstParseCache cache;
+  private final byte[] configuration;
+  private final @Nullable JavaTypeCache typeCache;
+
+  CachingParser(Parser delegate, LstParseCache cache, String configuration, @Nullable JavaTypeCache typeCache) {
+    this.delegate = delegate;
+    this.cache = cache;
+    this.configuration = configuration.getBytes(StandardCharsets.UTF_8);
+    this.typeCache = typeCache;
+  }
+
+  @Override
+  public Stream<SourceFile> parseInputs(Iterable<Input> sources, @Nullable Path relativeTo, ExecutionContext ctx) {
+    List<@Nullable SourceFile> sourceFiles = new ArrayList<>();
+    List<@Nullable String> keys = new ArrayList<>();
+    List<Input> misses = new ArrayList<>();
+    // Several inputs may share a source path, parsed source files are matched to them in order
+    Map<Path, Deque<Integer>> missIndexes = new HashMap<>();
+    for (Input input : sources) {
+      byte[] content = readFully(input, ctx);
+      Path sourcePath = input.getRelativePath(relativeTo);
+      String key = key(sourcePath, content);
+      SourceFile cached = cache.get(key, typeCache);
+      if (cached != null) {
+        sourceFiles.add(cached.withFileAttributes(input.getFileAttributes()));
+        keys.add(null);
+      } else {
+        missIndexes.computeIfAbsent(sourcePath, p -> new ArrayDeque<>()).add(sourceFiles.size());
+        sourceFiles.add(null);
+        keys.add(key);
+        // The source was consumed to compute its key, parse it from the bytes that were read
+        misses.add(new Input(input.getPath(), input.getFileAttributes(), () -> new ByteArrayInputStream(content),
+            input.isSynthetic()));
+      }
+    }
+
+    if (!misses.isEmpty()) {
+      delegate.parseInputs(misses, relativeTo, ctx).forEach(parsed -> {
+        Deque<Integer> indexes = missIndexes.get(parsed.getSourcePath());
+        if (indexes == null || indexes.isEmpty()) {
+          sourceFiles.add(parsed);
+          return;
+        }
+        int index = indexes.remove();
+        sourceFiles.set(index, parsed);
+        if (!(parsed instanceof ParseError) && !parsed.getMarkers().findFirst(ParseExceptionResult.class).isPresent()) {
+          cache.put(keys.get(index), parsed);
+        }
+      });
+    }
+    return sourceFiles.stream().filter(Objects::nonNull);
+  }
+
+  private String key(Path sourcePath, byte[] content) {
+    return sha256(configuration, sourcePath.toString().getBytes(StandardCharsets.UTF_8), content);
+  }
+
+  /**
+   * @return The hex encoded SHA-256 hash of the parts, separated by a zero byte
+   */
+  private static String sha256(byte[]... parts) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      for (int i = 0; i < parts.length; i++) {
+        if (i > 0) {
+          digest.update((byte) 0);
+        }
+        digest.update(parts[i]);
+      }
+      StringBuilder hex = new StringBuilder(64);
+      for (byte b : digest.digest()) {
+        hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+      }
+      return hex.toString();
+    } catch (NoSuchAlgorithmException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static byte[] readFully(Input input, ExecutionContext ctx) {
+    try (InputStream source = input.getSource(ctx)) {
+      ByteArrayOutputStream content = new ByteArrayOutputStream();
+      byte[] buffer = new byte[8192];
+      for (int read; (read = source.read(buffer)) != -1; ) {
+        content.write(buffer, 0, read);
+      }
+      return content.toByteArray();
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  @Override
+  public boolean accept(Path path) {
+    return delegate.accept(path);
+  }
+
+  @Override
+  public Parser reset() {
+    delegate.reset();
+    return this;
+  }
+
+  @Override
+  public Path sourcePathFromSourceText(Path prefix, String sourceCode) {
+    return delegate.sourcePathFromSourceText(prefix, sourceCode);
+  }
+
+  public static class Builder extends Parser.Builder {
+    private final LstParseCache cache;
+    private final Parser.Builder delegate;
+    private final Map<String, String> configuration = new TreeMap<>();
+
+    Builder(LstParseCache cache, Parser.Builder delegate) {
+      super(delegate.getSourceFileType());
+      this.cache = cache;
+      this.delegate = delegate;
+    }
+
+    /**
+     * Adds a setting of the wrapped parser that is not detected automatically to the cache key, so that source files
+     * parsed with a different value are not read from the cache.
+     */
+    public Builder configuration(String name, Object value) {
+      configuration.put(name, String.valueOf(value));
+      return this;
+    }
+
+    @Override
+    public CachingParser build() {
+      Map<String, String> resolved = new TreeMap<>(configuration);
+      resolved.put("parser", delegate.getClass().getName());
+      resolved.put("rewrite", String.valueOf(Parser.class.getPackage().getImplementationVersion()));
+      resolved.put("java", System.getProperty("java.version"));
+      resolved.put("format", cache.getSerializer().getFormat().name());
+      JavaTypeCache typeCache = null;
+      if (delegate instanceof JavaParser.Builder) {
+        JavaParser.Builder<?, ?> javaParserBuilder = (JavaParser.Builder<?, ?>) delegate;
+        typeCache = field(javaParserBuilder, "javaTypeCache");
+        StringJoiner classpath = new StringJoiner(",");
+        for (Path entry : classpath(javaParserBuilder)) {
+          try {
+            classpath.add(entry + ":" + Files.size(entry) + ":" + Files.getLastModifiedTime(entry).toMillis());
+          } catch (IOException e) {
+            classpath.add(entry.toString());
+          }
+        }
+        resolved.put("classpath", classpath.toString());
+
+        StringJoiner classBytes = new StringJoiner(",");
+        Collection<byte[]> classBytesClasspath = field(javaParserBuilder, "classBytesClasspath");
+        if (classBytesClasspath != null) {
+          for (byte[] bytes : classBytesClasspath) {
+            classBytes.add(sha256(bytes));
+          }
+        }
+        resolved.put("classBytes", classBytes.toString());
+
+        StringJoiner dependsOn = new StringJoiner(",");
+        Collection<Input> dependencies = field(javaParserBuilder, "dependsOn");
+        if (dependencies != null) {
+          ExecutionContext ctx = new InMemoryExecutionContext();
+          for (Input dependency : dependencies) {
+            dependsOn.add(dependency.getPath() + ":" + sha256(readFully(dependency, ctx)));
+          }
+        }
+        resolved.put("dependsOn", dependsOn.toString());
+
+        StringJoiner styles = new StringJoiner(",");
+        List<NamedStyles> namedStyles = field(javaParserBuilder, "styles");
+        if (namedStyles != null) {
+          for (NamedStyles style : namedStyles) {
+            styles.add(style.getName() + ":" +
+                sha256(String.valueOf(style.getStyles()).getBytes(StandardCharsets.UTF_8)));
+          }
+        }
+        resolved.put("styles", styles.toString());
+
+        Charset charset = field(javaParserBuilder, "charset");
+        resolved.put("charset", String.valueOf(charset));
+      }
+      return new CachingParser(delegate.build(), cache, resolved.toString(), typeCache);
+    }
+
+    /**
+     * The classpath of a Java parser builder is not exposed, it has to be read reflectively.
+     */
+    @SuppressWarnings("unchecked")
+    private static Collection<Path> classpath(JavaParser.Builder<?, ?> builder) {
+      try {
+        Method resolvedClasspath = JavaParser.Builder.class.getDeclaredMethod("resolvedClasspath");
+        resolvedClasspath.setAccessible(true);
+        return (Collection<Path>) resolvedClasspath.invoke(builder);
+      } catch (ReflectiveOperationException | RuntimeException e) {
+        throw new IllegalStateException("Unable to read the classpath of the Java parser, which is part of the cache key", e);
+      }
+    }
+
+    /**
+     * The type cache, the sources depended on, the styles and the charset of a Java parser builder are not exposed
+     * either.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> @Nullable T field(JavaParser.Builder<?, ?> builder, String name) {
+      try {
+        Field field = JavaParser.Builder.class.getDeclaredField(name);
+        field.setAccessible(true);
+        return (T) field.get(builder);
+      } catch (ReflectiveOperationException | RuntimeException e) {
+        throw new IllegalStateException("Unable to read the " + name + " field of the Java parser builder", e);
+      }
+    }
+
+    @Override
+    public String getDslName() {
+      return delegate.getDslName();
+    }
+  }
+}
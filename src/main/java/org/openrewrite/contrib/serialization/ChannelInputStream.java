@@ -0,0 +1,70 @@
+package org.openrewrite.contrib.serialization;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Reads from a blocking channel through a pooled direct buffer. Closing the stream returns the buffer to the pool, but
+ * leaves the channel open.
+ */
+class ChannelInputStream extends InputStream {
+
+  private final ReadableByteChannel channel;
+  private final ByteBuffer buffer = DirectBufferPool.acquire();
+  private boolean closed;
+
+  ChannelInputStream(ReadableByteChannel channel) {
+    this.channel = channel;
+    ((Buffer) buffer).flip();
+  }
+
+  @Override
+  public int read() throws IOException {
+    return fill() ? buffer.get() & 0xFF : -1;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    if (len == 0) {
+      return 0;
+    }
+    if (!fill()) {
+      return -1;
+    }
+    int count = Math.min(len, buffer.remaining());
+    buffer.get(b, off, count);
+    return count;
+  }
+
+  @Override
+  public int available() {
+    return buffer.remaining();
+  }
+
+  /**
+   * @return false once the channel is exhausted
+   */
+  private boolean fill() throws IOException {
+    if (buffer.hasRemaining()) {
+      return true;
+    }
+    ((Buffer) buffer).clear();
+    int count;
+    do {
+      count = channel.read(buffer);
+    } while (count == 0);
+    ((Buffer) buffer).flip();
+    return count > 0;
+  }
+
+  @Override
+  public void close() {
+    if (!closed) {
+      closed = true;
+      DirectBufferPool.release(buffer);
+    }
+  }
+}
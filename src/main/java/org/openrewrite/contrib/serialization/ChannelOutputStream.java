@@ -0,0 +1,69 @@
+package org.openrewrite.contrib.serialization;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Buffers writes in a pooled direct buffer and drains it into a blocking channel whenever it fills up. Closing the stream
+ * drains the remaining bytes and returns the buffer to the pool, but leaves the channel open.
+ */
+class ChannelOutputStream extends OutputStream {
+
+  private final WritableByteChannel channel;
+  private final ByteBuffer buffer = DirectBufferPool.acquire();
+  private boolean closed;
+
+  ChannelOutputStream(WritableByteChannel channel) {
+    this.channel = channel;
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    if (!buffer.hasRemaining()) {
+      drain();
+    }
+    buffer.put((byte) b);
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    while (len > 0) {
+      if (!buffer.hasRemaining()) {
+        drain();
+      }
+      int count = Math.min(len, buffer.remaining());
+      buffer.put(b, off, count);
+      off += count;
+      len -= count;
+    }
+  }
+
+  @Override
+  public void flush() throws IOException {
+    drain();
+  }
+
+  private void drain() throws IOException {
+    ((Buffer) buffer).flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    ((Buffer) buffer).clear();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      drain();
+    } finally {
+      DirectBufferPool.release(buffer);
+    }
+  }
+}
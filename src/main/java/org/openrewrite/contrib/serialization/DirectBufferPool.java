@@ -0,0 +1,45 @@
+package org.openrewrite.contrib.serialization;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Direct buffers are expensive to allocate and are only freed once the garbage collector gets to them, so the channel
+ * streams borrow them from this pool and return them when they are closed. Only a bounded number of idle buffers are
+ * kept, any buffer released beyond that is left to the garbage collector.
+ */
+final class DirectBufferPool {
+
+  static final int BUFFER_SIZE = 64 * 1024;
+  private static final int MAX_IDLE_BUFFERS = 32;
+
+  private static final Queue<ByteBuffer> idle = new ConcurrentLinkedQueue<>();
+  private static final AtomicInteger idleCount = new AtomicInteger();
+
+  private DirectBufferPool() {
+  }
+
+  /**
+   * @return A cleared buffer of {@link #BUFFER_SIZE} bytes
+   */
+  static ByteBuffer acquire() {
+    ByteBuffer buffer = idle.poll();
+    if (buffer == null) {
+      return ByteBuffer.allocateDirect(BUFFER_SIZE);
+    }
+    idleCount.decrementAndGet();
+    ((Buffer) buffer).clear();
+    return buffer;
+  }
+
+  static void release(ByteBuffer buffer) {
+    if (idleCount.incrementAndGet() <= MAX_IDLE_BUFFERS) {
+      idle.offer(buffer);
+    } else {
+      idleCount.decrementAndGet();
+    }
+  }
+}
@@ -0,0 +1,28 @@
+package org.openrewrite.contrib.serialization;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StringDeserializer;
+
+import java.io.IOException;
+
+/**
+ * Replaces Jackson's default {@link String} deserializer, so that every string value of a tree, including the elements
+ * of string collections and arrays, goes through the {@link StringInterner}.
+ */
+class InterningStringDeserializer extends StdScalarDeserializer<String> {
+
+  private final StringInterner stringInterner;
+
+  InterningStringDeserializer(StringInterner stringInterner) {
+    super(String.class);
+    this.stringInterner = stringInterner;
+  }
+
+  @Override
+  public String deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+    String value = StringDeserializer.instance.deserialize(p, ctxt);
+    return value == null ? null : stringInterner.intern(value);
+  }
+}
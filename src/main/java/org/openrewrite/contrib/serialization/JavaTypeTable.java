@@ -0,0 +1,201 @@
+package org.openrewrite.contrib.serialization;
+
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.java.internal.DefaultJavaTypeSignatureBuilder;
+import org.openrewrite.java.internal.JavaTypeCache;
+import org.openrewrite.java.tree.JavaType;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * A table of Java types shared by a set of independently encoded source files. Source files encoded against a table
+ * reference each type by its signature instead of carrying their own copy of the type graph, and the table itself is
+ * encoded once for all of them. Types with the same signature are stored once, even if they were distinct instances.
+ * <p>
+ * The table is thread-safe and its iteration order only depends on the signatures it holds, so the same set of types
+ * always encodes to the same bytes.
+ */
+public class JavaTypeTable {
+
+  private final Map<String, JavaType> types = new ConcurrentSkipListMap<>();
+
+  /**
+   * The same type instances are referenced by many trees, remember their signatures rather than computing them again.
+   */
+  private final Map<JavaType, String> signatures = Collections.synchronizedMap(new IdentityHashMap<>());
+
+  public JavaTypeTable() {
+  }
+
+  JavaTypeTable(Map<String, JavaType> types) {
+    this.types.putAll(types);
+  }
+
+  /**
+   * Adds the type to the table, unless a type with the same signature is already present.
+   *
+   * @return The signature that references the type in the table
+   */
+  String add(JavaType type) {
+    String signature = signatures.get(type);
+    if (signature == null) {
+      signature = signature(type);
+      signatures.put(type, signature);
+    }
+    types.putIfAbsent(signature, type);
+    return signature;
+  }
+
+  /**
+   * Adds the types of the other table whose signatures are not already present.
+   */
+  void addAll(JavaTypeTable other) {
+    for (Map.Entry<String, JavaType> entry : other.types.entrySet()) {
+      types.putIfAbsent(entry.getKey(), entry.getValue());
+    }
+  }
+
+  @Nullable
+  JavaType get(String signature) {
+    return types.get(signature);
+  }
+
+  public int size() {
+    return types.size();
+  }
+
+  /**
+   * @return The types in the table keyed and ordered by signature
+   */
+  public Map<String, JavaType> getTypes() {
+    return Collections.unmodifiableMap(types);
+  }
+
+  /**
+   * Resolves every type reachable from the table through the cache: a type is replaced by the instance the cache holds
+   * for the same signature, and a type the cache does not hold yet is added to it, with the types it references resolved
+   * in turn. Source files decoded against the returned table share their type instances with every other table, or
+   * parser, backed by the same cache. This table is left as it is.
+   *
+   * @return A table of the resolved types
+   */
+  public JavaTypeTable intern(JavaTypeCache typeCache) {
+    Map<String, JavaType> interned = new LinkedHashMap<>();
+    //noinspection SynchronizationOnLocalVariableOrMethodParameter
+    synchronized (typeCache) {
+      CacheResolver resolver = new CacheResolver(typeCache);
+      for (Map.Entry<String, JavaType> entry : types.entrySet()) {
+        interned.put(entry.getKey(), resolver.resolve(entry.getValue()));
+      }
+      resolver.resolveAdopted();
+    }
+    return new JavaTypeTable(interned);
+  }
+
+  static String signature(JavaType type) {
+    if (type instanceof JavaType.MultiCatch) {
+      // Not supported by the signature builder
+      StringJoiner signature = new StringJoiner(" | ");
+      for (JavaType throwableType : ((JavaType.MultiCatch) type).getThrowableTypes()) {
+        signature.add(signature(throwableType));
+      }
+      return signature.toString();
+    }
+    return new DefaultJavaTypeSignatureBuilder().signature(type);
+  }
+
+  /**
+   * Maps decoded types to the instances of a type cache, adopting the types the cache does not hold yet and resolving
+   * the types they reference, so that the whole graph reachable from a decoded type is made of cached instances.
+   */
+  private static class CacheResolver {
+    private final JavaTypeCache typeCache;
+    private final Map<JavaType, JavaType> resolved = new IdentityHashMap<>();
+    private final Deque<JavaType> adopted = new ArrayDeque<>();
+
+    CacheResolver(JavaTypeCache typeCache) {
+      this.typeCache = typeCache;
+    }
+
+    @SuppressWarnings("unchecked")
+    <T extends JavaType> @Nullable T resolve(@Nullable T type) {
+      if (type == null || type instanceof JavaType.Primitive || type instanceof JavaType.Unknown) {
+        return type;
+      }
+      JavaType resolvedType = resolved.get(type);
+      if (resolvedType == null) {
+        String signature = signature(type);
+        Object cached = typeCache.get(signature);
+        if (isSameKind(type, cached)) {
+          resolvedType = (JavaType) cached;
+        } else {
+          typeCache.put(signature, type);
+          adopted.add(type);
+          resolvedType = type;
+        }
+        resolved.put(type, resolvedType);
+      }
+      return (T) resolvedType;
+    }
+
+    private <T extends JavaType> List<T> resolve(List<T> types) {
+      List<T> resolvedTypes = new ArrayList<>(types.size());
+      for (T type : types) {
+        resolvedTypes.add(resolve(type));
+      }
+      return resolvedTypes;
+    }
+
+    /**
+     * Resolves the types referenced by the adopted types, which can adopt more types, until the graph is resolved.
+     */
+    void resolveAdopted() {
+      JavaType type;
+      while ((type = adopted.poll()) != null) {
+        if (type instanceof JavaType.Class) {
+          JavaType.Class c = (JavaType.Class) type;
+          c.unsafeSet(resolve(c.getTypeParameters()), resolve(c.getSupertype()), resolve(c.getOwningClass()),
+              resolve(c.getAnnotations()), resolve(c.getInterfaces()), resolve(c.getMembers()),
+              resolve(c.getMethods()));
+        } else if (type instanceof JavaType.Parameterized) {
+          JavaType.Parameterized p = (JavaType.Parameterized) type;
+          p.unsafeSet(resolve(p.getType()), resolve(p.getTypeParameters()));
+        } else if (type instanceof JavaType.GenericTypeVariable) {
+          JavaType.GenericTypeVariable g = (JavaType.GenericTypeVariable) type;
+          g.unsafeSet(g.getName(), g.getVariance(), resolve(g.getBounds()));
+        } else if (type instanceof JavaType.Array) {
+          JavaType.Array a = (JavaType.Array) type;
+          List<JavaType.FullyQualified> annotations = resolve(a.getAnnotations());
+          a.unsafeSet(resolve(a.getElemType()),
+              annotations.isEmpty() ? null : annotations.toArray(new JavaType.FullyQualified[0]));
+        } else if (type instanceof JavaType.Method) {
+          JavaType.Method m = (JavaType.Method) type;
+          m.unsafeSet(resolve(m.getDeclaringType()), resolve(m.getReturnType()), resolve(m.getParameterTypes()),
+              resolve(m.getThrownExceptions()), resolve(m.getAnnotations()));
+        } else if (type instanceof JavaType.Variable) {
+          JavaType.Variable v = (JavaType.Variable) type;
+          v.unsafeSet(resolve(v.getOwner()), resolve(v.getType()), resolve(v.getAnnotations()));
+        } else if (type instanceof JavaType.Intersection) {
+          JavaType.Intersection i = (JavaType.Intersection) type;
+          i.unsafeSet(resolve(i.getBounds()));
+        } else if (type instanceof JavaType.MultiCatch) {
+          JavaType.MultiCatch m = (JavaType.MultiCatch) type;
+          m.unsafeSet(resolve(m.getThrowableTypes()));
+        }
+      }
+    }
+
+    /**
+     * @return Whether the cached instance can stand in for the type, the cache also holds other objects than types
+     */
+    private static boolean isSameKind(JavaType type, @Nullable Object cached) {
+      if (cached == null) {
+        return false;
+      } else if (type instanceof JavaType.FullyQualified) {
+        return cached instanceof JavaType.FullyQualified;
+      }
+      return cached.getClass() == type.getClass();
+    }
+  }
+}
@@ -0,0 +1,150 @@
+package org.openrewrite.contrib.serialization;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.*;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerModifier;
+import com.fasterxml.jackson.databind.deser.std.DelegatingDeserializer;
+import com.fasterxml.jackson.databind.jsontype.TypeDeserializer;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.databind.ser.ContextualSerializer;
+import com.fasterxml.jackson.databind.ser.ResolvableSerializer;
+import org.openrewrite.java.tree.JavaType;
+
+import java.io.IOException;
+
+/**
+ * Lets source files be encoded against a {@link JavaTypeTable}. When a table is passed as the {@link JavaTypeTable}
+ * attribute of a read or write, every {@link JavaType} is written as its signature in the table and read back from the
+ * table. Without the attribute, Java types are encoded as usual.
+ */
+class JavaTypeTableModule extends SimpleModule {
+
+  JavaTypeTableModule() {
+    super("JavaTypeTableModule");
+    setSerializerModifier(new BeanSerializerModifier() {
+      @Override
+      public JsonSerializer<?> modifySerializer(SerializationConfig config, BeanDescription beanDesc, JsonSerializer<?> serializer) {
+        return isJavaType(beanDesc) ? new TableSerializer(serializer) : serializer;
+      }
+    });
+    setDeserializerModifier(new BeanDeserializerModifier() {
+      @Override
+      public JsonDeserializer<?> modifyDeserializer(DeserializationConfig config, BeanDescription beanDesc, JsonDeserializer<?> deserializer) {
+        return isJavaType(beanDesc) ? new TableDeserializer(deserializer) : deserializer;
+      }
+
+      @Override
+      public JsonDeserializer<?> modifyEnumDeserializer(DeserializationConfig config, com.fasterxml.jackson.databind.JavaType type,
+                                                        BeanDescription beanDesc, JsonDeserializer<?> deserializer) {
+        return isJavaType(beanDesc) ? new TableDeserializer(deserializer) : deserializer;
+      }
+    });
+  }
+
+  private static boolean isJavaType(BeanDescription beanDesc) {
+    return JavaType.class.isAssignableFrom(beanDesc.getBeanClass());
+  }
+
+  private static class TableSerializer extends JsonSerializer<Object> implements ContextualSerializer, ResolvableSerializer {
+    private final JsonSerializer<Object> delegate;
+
+    @SuppressWarnings("unchecked")
+    TableSerializer(JsonSerializer<?> delegate) {
+      this.delegate = (JsonSerializer<Object>) delegate;
+    }
+
+    @Override
+    public void serialize(Object value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+      JavaTypeTable table = (JavaTypeTable) serializers.getAttribute(JavaTypeTable.class);
+      if (table == null) {
+        delegate.serialize(value, gen, serializers);
+      } else {
+        gen.writeString(table.add((JavaType) value));
+      }
+    }
+
+    @Override
+    public void serializeWithType(Object value, JsonGenerator gen, SerializerProvider serializers, TypeSerializer typeSer) throws IOException {
+      JavaTypeTable table = (JavaTypeTable) serializers.getAttribute(JavaTypeTable.class);
+      if (table == null) {
+        delegate.serializeWithType(value, gen, serializers, typeSer);
+      } else {
+        // The signature identifies the type in the table, no type id is needed
+        gen.writeString(table.add((JavaType) value));
+      }
+    }
+
+    @Override
+    public JsonSerializer<?> createContextual(SerializerProvider prov, BeanProperty property) throws JsonMappingException {
+      JsonSerializer<?> contextual = prov.handlePrimaryContextualization(delegate, property);
+      return contextual == delegate ? this : new TableSerializer(contextual);
+    }
+
+    @Override
+    public void resolve(SerializerProvider provider) throws JsonMappingException {
+      if (delegate instanceof ResolvableSerializer) {
+        ((ResolvableSerializer) delegate).resolve(provider);
+      }
+    }
+
+    @Override
+    public boolean usesObjectId() {
+      return delegate.usesObjectId();
+    }
+
+    @Override
+    public boolean isEmpty(SerializerProvider provider, Object value) {
+      return delegate.isEmpty(provider, value);
+    }
+
+    @Override
+    public Class<Object> handledType() {
+      return delegate.handledType();
+    }
+
+    @Override
+    public JsonSerializer<?> getDelegatee() {
+      return delegate;
+    }
+  }
+
+  private static class TableDeserializer extends DelegatingDeserializer {
+
+    TableDeserializer(JsonDeserializer<?> delegate) {
+      super(delegate);
+    }
+
+    @Override
+    protected JsonDeserializer<?> newDelegatingInstance(JsonDeserializer<?> newDelegatee) {
+      return new TableDeserializer(newDelegatee);
+    }
+
+    @Override
+    public Object deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+      JavaTypeTable table = (JavaTypeTable) ctxt.getAttribute(JavaTypeTable.class);
+      return table == null ? super.deserialize(p, ctxt) : lookup(table, p, ctxt);
+    }
+
+    @Override
+    public Object deserializeWithType(JsonParser p, DeserializationContext ctxt, TypeDeserializer typeDeserializer) throws IOException {
+      JavaTypeTable table = (JavaTypeTable) ctxt.getAttribute(JavaTypeTable.class);
+      return table == null ? super.deserializeWithType(p, ctxt, typeDeserializer) : lookup(table, p, ctxt);
+    }
+
+    private Object lookup(JavaTypeTable table, JsonParser p, DeserializationContext ctxt) throws IOException {
+      if (p.currentToken() != JsonToken.VALUE_STRING) {
+        return ctxt.handleUnexpectedToken(handledType(), p);
+      }
+      String signature = p.getText();
+      JavaType type = table.get(signature);
+      if (type == null) {
+        throw JsonMappingException.from(p, "The type table has no type with signature " + signature);
+      }
+      return type;
+    }
+  }
+}
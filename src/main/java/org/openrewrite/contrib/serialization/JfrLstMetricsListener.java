@@ -0,0 +1,57 @@
+package org.openrewrite.contrib.serialization;
+
+import jdk.jfr.FlightRecorder;
+
+import java.io.Closeable;
+import java.util.List;
+
+/**
+ * A {@link LstMetricsListener} that reports to Java Flight Recorder. A JFR event per serialized object would quickly
+ * dominate a recording, so the callbacks are aggregated per type instead, and every period (10 seconds unless the
+ * recording settings say otherwise) an {@code org.openrewrite.contrib.LstTypeMetrics} event is emitted for every type
+ * encoded or decoded during the period. Requires a JVM that ships the {@code jdk.jfr} API.
+ * <p>
+ * Close the listener once it is no longer used, which emits the remaining metrics and unregisters it from JFR.
+ */
+public class JfrLstMetricsListener implements LstMetricsListener, Closeable {
+
+  private final LstMetrics metrics = new LstMetrics();
+  private final Runnable emit = this::emit;
+
+  public JfrLstMetricsListener() {
+    FlightRecorder.addPeriodicEvent(LstTypeMetricsEvent.class, emit);
+  }
+
+  @Override
+  public void encoded(Class<?> type, long bytes, long nanos) {
+    metrics.encoded(type, bytes, nanos);
+  }
+
+  @Override
+  public void decoded(Class<?> type, long bytes, long nanos) {
+    metrics.decoded(type, bytes, nanos);
+  }
+
+  private synchronized void emit() {
+    emit("encode", metrics.drainEncoded());
+    emit("decode", metrics.drainDecoded());
+  }
+
+  private static void emit(String operation, List<LstMetrics.TypeMetrics> typeMetrics) {
+    for (LstMetrics.TypeMetrics metrics : typeMetrics) {
+      LstTypeMetricsEvent event = new LstTypeMetricsEvent();
+      event.operation = operation;
+      event.type = metrics.getType();
+      event.count = metrics.getCount();
+      event.bytes = metrics.getBytes();
+      event.nanos = metrics.getNanos();
+      event.commit();
+    }
+  }
+
+  @Override
+  public void close() {
+    FlightRecorder.removePeriodicEvent(emit);
+    emit();
+  }
+}
@@ -0,0 +1,52 @@
+package org.openrewrite.contrib.serialization;
+
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.SourceFile;
+
+import java.nio.file.Path;
+import java.util.function.Supplier;
+
+/**
+ * A handle on a serialized source file that exposes its {@link SourceFileHeader} right away and only decodes the tree
+ * the first time it is requested, so that filtering on the source path or type does not pay for
+ * decoding trees that are then discarded. The decoded tree is kept by the handle. Handles are thread-safe.
+ */
+public class LazySourceFile {
+
+  private final SourceFileHeader header;
+  private final Supplier<SourceFile> decoder;
+  private volatile @Nullable SourceFile sourceFile;
+
+  LazySourceFile(SourceFileHeader header, Supplier<SourceFile> decoder) {
+    this.header = header;
+    this.decoder = decoder;
+  }
+
+  public SourceFileHeader getHeader() {
+    return header;
+  }
+
+  public Path getSourcePath() {
+    return header.getSourcePath();
+  }
+
+  public boolean isDecoded() {
+    return sourceFile != null;
+  }
+
+  /**
+   * @return The source file, decoded on first access
+   */
+  public SourceFile get() {
+    SourceFile decoded = sourceFile;
+    if (decoded == null) {
+      synchronized (this) {
+        decoded = sourceFile;
+        if (decoded == null) {
+          sourceFile = decoded = decoder.get();
+        }
+      }
+    }
+    return decoded;
+  }
+}
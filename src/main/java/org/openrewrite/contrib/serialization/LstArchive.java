@@ -0,0 +1,248 @@
+package org.openrewrite.contrib.serialization;
+
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.SourceFile;
+import org.openrewrite.contrib.PathUtils;
+import org.openrewrite.java.internal.JavaTypeCache;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Random access to an archive written by {@link LstArchiveWriter}. Only the index is read when the archive is opened,
+ * each source file is read and decoded from its own segment when it is requested. Reads are positional, so an archive
+ * can be shared by multiple threads.
+ */
+public class LstArchive implements Closeable {
+
+  private final LstSerializer serializer;
+  private final FileChannel channel;
+  private final LstArchiveFormat.Layout layout;
+  private final @Nullable JavaTypeCache typeCache;
+  private final Map<Path, LstArchiveFormat.Entry> index;
+  private volatile @Nullable JavaTypeTable typeTable;
+
+  private LstArchive(LstSerializer serializer, FileChannel channel, LstArchiveFormat.Layout layout,
+                     @Nullable JavaTypeCache typeCache, Map<Path, LstArchiveFormat.Entry> index) {
+    this.serializer = serializer;
+    this.channel = channel;
+    this.layout = layout;
+    this.typeCache = typeCache;
+    this.index = index;
+  }
+
+  public static LstArchive open(LstSerializer serializer, Path archive) {
+    return open(serializer, archive, null);
+  }
+
+  /**
+   * @param serializer A serializer configured with the same format the archive was written with
+   * @param archive    The archive file
+   * @param typeCache  If not null, the types of the archive are resolved through this cache before the first source file
+   *                   is decoded, so that they are shared with every other archive or parser backed by the same cache
+   */
+  public static LstArchive open(LstSerializer serializer, Path archive, @Nullable JavaTypeCache typeCache) {
+    FileChannel channel = null;
+    try {
+      channel = FileChannel.open(archive, StandardOpenOption.READ);
+      LstArchiveFormat.Layout layout = LstArchiveFormat.readLayout(channel, serializer.getFormat());
+      Map<Path, LstArchiveFormat.Entry> index = new LinkedHashMap<>();
+      for (LstArchiveFormat.Entry entry : layout.getEntries()) {
+        index.put(entry.getSourcePath(), entry);
+      }
+      return new LstArchive(serializer, channel, layout, typeCache, index);
+    } catch (IOException | RuntimeException e) {
+      throw LstArchiveFormat.closeOnFailure(channel, e);
+    }
+  }
+
+  /**
+   * @return Whether the file starts like an archive written by {@link LstArchiveWriter}, rather than a list of source
+   * files written by {@link LstSerializer#serialize(List, OutputStream)}
+   */
+  public static boolean isArchive(Path file) {
+    try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+      return input.readInt() == LstArchiveFormat.MAGIC;
+    } catch (EOFException e) {
+      return false;
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  public boolean isCompressed() {
+    return layout.getHeader().isCompressed();
+  }
+
+  /**
+   * @return The source paths in the archive, in the order they were written
+   */
+  public Set<Path> getSourcePaths() {
+    return Collections.unmodifiableSet(index.keySet());
+  }
+
+  public boolean contains(Path sourcePath) {
+    return index.containsKey(sourcePath);
+  }
+
+  /**
+   * @return The content hash recorded for the source file, or null if the source file is not in the archive or the
+   * archive is not a snapshot, see {@link LstSnapshots}
+   */
+  public @Nullable String getContentHash(Path sourcePath) {
+    LstArchiveFormat.Entry entry = index.get(sourcePath);
+    return entry == null ? null : entry.getContentHash();
+  }
+
+  /**
+   * @return The source paths this archive removes from the archives before it in a snapshot chain, see
+   * {@link LstSnapshots}
+   */
+  public List<Path> getRemovedSourcePaths() {
+    return Collections.unmodifiableList(layout.getRemovedSourcePaths());
+  }
+
+  /**
+   * @return The decoded source file or null if the archive does not contain the source path
+   */
+  public @Nullable SourceFile read(Path sourcePath) {
+    LstArchiveFormat.Entry entry = index.get(sourcePath);
+    return entry == null ? null : decode(entry);
+  }
+
+  /**
+   * @return The header of the source file, read and decoded without reading its tree, or null if the archive does not
+   * contain the source path
+   */
+  public @Nullable SourceFileHeader readHeader(Path sourcePath) {
+    LstArchiveFormat.Entry entry = index.get(sourcePath);
+    return entry == null ? null : decodeHeader(entry);
+  }
+
+  /**
+   * @return A handle exposing the header of the source file, which only reads and decodes the tree once it is
+   * requested, or null if the archive does not contain the source path
+   */
+  public @Nullable LazySourceFile readLazy(Path sourcePath) {
+    LstArchiveFormat.Entry entry = index.get(sourcePath);
+    return entry == null ? null : lazy(entry);
+  }
+
+  /**
+   * Lazily reads the headers of the source files whose path matches the pattern, one at a time. Trees are only read when
+   * a handle is asked for its source file.
+   */
+  public Stream<LazySourceFile> streamLazy(String globPattern) {
+    return index.values().stream()
+        .filter(entry -> PathUtils.matchesGlob(entry.getSourcePath(), globPattern))
+        .map(this::lazy);
+  }
+
+  /**
+   * @return All source files in the archive, in the order they were written
+   */
+  public List<SourceFile> readAll() {
+    return index.values().stream().map(this::decode).collect(Collectors.toList());
+  }
+
+  /**
+   * @param globPattern A glob expression matched against each source path, see {@link PathUtils#matchesGlob}
+   * @return The source files whose path matches the pattern, in the order they were written
+   */
+  public List<SourceFile> readAll(String globPattern) {
+    try (Stream<SourceFile> sourceFiles = stream(globPattern)) {
+      return sourceFiles.collect(Collectors.toList());
+    }
+  }
+
+  /**
+   * Decodes the source files whose path matches the pattern concurrently on the executor, for instance a
+   * {@link java.util.concurrent.ForkJoinPool} or a virtual thread per task executor.
+   *
+   * @return The same source files as {@link #readAll(String)}, in the order they were written
+   */
+  public List<SourceFile> readAll(String globPattern, Executor executor) {
+    List<CompletableFuture<SourceFile>> decoding = index.values().stream()
+        .filter(entry -> PathUtils.matchesGlob(entry.getSourcePath(), globPattern))
+        .map(entry -> CompletableFuture.supplyAsync(() -> decode(entry), executor))
+        .collect(Collectors.toList());
+    try {
+      return decoding.stream().map(CompletableFuture::join).collect(Collectors.toList());
+    } catch (CompletionException e) {
+      decoding.forEach(pending -> pending.cancel(false));
+      throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+    }
+  }
+
+  /**
+   * Lazily decodes the source files whose path matches the pattern, one segment at a time. Segments of source files that
+   * do not match are never read.
+   */
+  public Stream<SourceFile> stream(String globPattern) {
+    return index.values().stream()
+        .filter(entry -> PathUtils.matchesGlob(entry.getSourcePath(), globPattern))
+        .map(this::decode);
+  }
+
+  private LazySourceFile lazy(LstArchiveFormat.Entry entry) {
+    return new LazySourceFile(decodeHeader(entry), () -> decode(entry));
+  }
+
+  private SourceFileHeader decodeHeader(LstArchiveFormat.Entry entry) {
+    try {
+      byte[] segment = LstArchiveFormat.read(channel, entry.getOffset(), entry.getHeaderLength());
+      return serializer.deserializeHeader(
+          LstArchiveFormat.decompress(new ByteArrayInputStream(segment), isCompressed()));
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private SourceFile decode(LstArchiveFormat.Entry entry) {
+    try {
+      byte[] segment = LstArchiveFormat.read(channel, entry.getTreeOffset(), entry.getTreeLength());
+      return serializer.deserializeSourceFile(
+          LstArchiveFormat.decompress(new ByteArrayInputStream(segment), isCompressed()), getTypeTable());
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * @return The types shared by all source files in the archive, decoded the first time they are needed
+   */
+  public JavaTypeTable getTypeTable() {
+    JavaTypeTable table = typeTable;
+    if (table == null) {
+      synchronized (this) {
+        table = typeTable;
+        if (table == null) {
+          try {
+            typeTable = table = LstArchiveFormat.readTypeTable(channel, layout, serializer, typeCache);
+          } catch (IOException e) {
+            throw new RuntimeException(e);
+          }
+        }
+      }
+    }
+    return table;
+  }
+
+  @Override
+  public void close() {
+    try {
+      channel.close();
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+}
@@ -0,0 +1,228 @@
+package org.openrewrite.contrib.serialization;
+
+import lombok.Value;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.java.internal.JavaTypeCache;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * The on-disk layout shared by {@link LstArchiveWriter} and the archive readers. An archive is made of:
+ * <ul>
+ *   <li>A header: magic number, layout version, the {@link LstSerializer.Format} of the segments and whether the
+ *   segments are compressed.</li>
+ *   <li>One segment per source file, made of an independently encoded {@link SourceFileHeader} followed by the
+ *   independently encoded tree, with Java types written as references into the type table.</li>
+ *   <li>A {@link JavaTypeTable} segment holding every Java type referenced by the source files.</li>
+ *   <li>An index holding the offset and length of the type table, the offset, length, header length and optional
+ *   content hash of each source file's segment by source path, and the source paths that a delta archive removes from
+ *   the archives before it.</li>
+ *   <li>A fixed length footer holding the offset of the index, so readers can locate it from the end of the file.</li>
+ * </ul>
+ */
+final class LstArchiveFormat {
+
+  static final int MAGIC = 0x4C535441; // "LSTA"
+  static final int VERSION = 5;
+  static final int FOOTER_LENGTH = Long.BYTES + Integer.BYTES;
+
+  /**
+   * An upper bound on the size of the header, enough to read it in a single read without knowing its exact length.
+   */
+  static final int MAX_HEADER_LENGTH = 64;
+
+  private LstArchiveFormat() {
+  }
+
+  @Value
+  static class Header {
+    LstSerializer.Format format;
+    boolean compressed;
+  }
+
+  @Value
+  static class Layout {
+    Header header;
+    long typesOffset;
+    int typesLength;
+    List<Entry> entries;
+    List<Path> removedSourcePaths;
+  }
+
+  @Value
+  static class Entry {
+    Path sourcePath;
+    long offset;
+
+    /**
+     * The length of the whole segment, header included.
+     */
+    int length;
+
+    int headerLength;
+
+    /**
+     * See {@link LstSerializer#contentHash(org.openrewrite.SourceFile)}, only recorded for snapshot archives.
+     */
+    @Nullable
+    String contentHash;
+
+    long getTreeOffset() {
+      return offset + headerLength;
+    }
+
+    int getTreeLength() {
+      return length - headerLength;
+    }
+  }
+
+  static void writeHeader(DataOutput output, Header header) throws IOException {
+    output.writeInt(MAGIC);
+    output.writeInt(VERSION);
+    output.writeUTF(header.getFormat().name());
+    output.writeBoolean(header.isCompressed());
+  }
+
+  static Header readHeader(DataInput input) throws IOException {
+    if (input.readInt() != MAGIC) {
+      throw new IllegalArgumentException("Not an LST archive");
+    }
+    int version = input.readInt();
+    if (version != VERSION) {
+      throw new IllegalArgumentException("Unsupported LST archive version " + version);
+    }
+    return new Header(LstSerializer.Format.valueOf(input.readUTF()), input.readBoolean());
+  }
+
+  static void writeIndex(DataOutput output, long typesOffset, int typesLength, Collection<Entry> entries,
+                         Collection<Path> removedSourcePaths) throws IOException {
+    output.writeLong(typesOffset);
+    output.writeInt(typesLength);
+    output.writeInt(entries.size());
+    for (Entry entry : entries) {
+      output.writeUTF(entry.getSourcePath().toString());
+      output.writeLong(entry.getOffset());
+      output.writeInt(entry.getLength());
+      output.writeInt(entry.getHeaderLength());
+      output.writeUTF(entry.getContentHash() == null ? "" : entry.getContentHash());
+    }
+    output.writeInt(removedSourcePaths.size());
+    for (Path removed : removedSourcePaths) {
+      output.writeUTF(removed.toString());
+    }
+  }
+
+  static Layout readIndex(DataInput input, Header header) throws IOException {
+    long typesOffset = input.readLong();
+    int typesLength = input.readInt();
+    int size = input.readInt();
+    List<Entry> entries = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      Path sourcePath = Paths.get(input.readUTF());
+      long offset = input.readLong();
+      int length = input.readInt();
+      int headerLength = input.readInt();
+      String contentHash = input.readUTF();
+      entries.add(new Entry(sourcePath, offset, length, headerLength, contentHash.isEmpty() ? null : contentHash));
+    }
+    int removedSize = input.readInt();
+    List<Path> removedSourcePaths = new ArrayList<>(removedSize);
+    for (int i = 0; i < removedSize; i++) {
+      removedSourcePaths.add(Paths.get(input.readUTF()));
+    }
+    return new Layout(header, typesOffset, typesLength, entries, removedSourcePaths);
+  }
+
+  static void writeFooter(DataOutput output, long indexOffset) throws IOException {
+    output.writeLong(indexOffset);
+    output.writeInt(MAGIC);
+  }
+
+  /**
+   * @return The offset of the index, read from the footer
+   */
+  static long readFooter(DataInput input) throws IOException {
+    long indexOffset = input.readLong();
+    if (input.readInt() != MAGIC) {
+      throw new IllegalArgumentException("Not an LST archive, or the archive was not closed after it was written");
+    }
+    return indexOffset;
+  }
+
+  /**
+   * Reads the header, footer and index of an archive, which is all that is needed to locate every segment.
+   */
+  static Layout readLayout(FileChannel channel, LstSerializer.Format expectedFormat) throws IOException {
+    long size = channel.size();
+    if (size < FOOTER_LENGTH) {
+      throw new IllegalArgumentException("Not an LST archive");
+    }
+    Header header = readHeader(new DataInputStream(new ByteArrayInputStream(
+        read(channel, 0, (int) Math.min(size, MAX_HEADER_LENGTH)))));
+    if (header.getFormat() != expectedFormat) {
+      throw new IllegalArgumentException("The archive was written as " + header.getFormat() +
+          " but the serializer reads " + expectedFormat);
+    }
+    long indexOffset = readFooter(new DataInputStream(new ByteArrayInputStream(
+        read(channel, size - FOOTER_LENGTH, FOOTER_LENGTH))));
+    return readIndex(new DataInputStream(new ByteArrayInputStream(
+        read(channel, indexOffset, (int) (size - FOOTER_LENGTH - indexOffset)))), header);
+  }
+
+  /**
+   * Reads and decodes the type table of an archive, resolving its types through the type cache when one is given.
+   */
+  static JavaTypeTable readTypeTable(FileChannel channel, Layout layout, LstSerializer serializer,
+                                     @Nullable JavaTypeCache typeCache) throws IOException {
+    byte[] segment = read(channel, layout.getTypesOffset(), layout.getTypesLength());
+    return serializer.deserializeTypeTable(
+        decompress(new ByteArrayInputStream(segment), layout.getHeader().isCompressed()), typeCache);
+  }
+
+  static byte[] read(FileChannel channel, long offset, int length) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(length);
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, offset + buffer.position()) < 0) {
+        throw new EOFException("Unexpected end of LST archive");
+      }
+    }
+    return buffer.array();
+  }
+
+  /**
+   * Closes a partially opened archive and returns the failure to rethrow.
+   */
+  static RuntimeException closeOnFailure(@Nullable Closeable channel, Exception e) {
+    if (channel != null) {
+      try {
+        channel.close();
+      } catch (IOException suppressed) {
+        e.addSuppressed(suppressed);
+      }
+    }
+    return e instanceof RuntimeException ? (RuntimeException) e : new RuntimeException(e);
+  }
+
+  static byte[] compress(byte[] segment, Deflater deflater) throws IOException {
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream(segment.length / 4 + 64);
+    deflater.reset();
+    DeflaterOutputStream deflaterStream = new DeflaterOutputStream(compressed, deflater);
+    deflaterStream.write(segment);
+    deflaterStream.finish();
+    return compressed.toByteArray();
+  }
+
+  static InputStream decompress(InputStream segment, boolean compressed) {
+    return compressed ? new InflaterInputStream(segment) : segment;
+  }
+}
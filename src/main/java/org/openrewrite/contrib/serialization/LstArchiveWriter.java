@@ -0,0 +1,204 @@
+package org.openrewrite.contrib.serialization;
+
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.SourceFile;
+
+import java.io.*;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.zip.Deflater;
+
+/**
+ * Writes source files into an archive made of one independently encoded segment per source file followed by an index,
+ * so that {@link LstArchive} can decode any single file without touching the others. Each segment starts with the
+ * source file's {@link SourceFileHeader}, which can be read without decoding the tree that follows it. The Java types
+ * referenced by the source files are collected into one shared {@link JavaTypeTable}, which is written with the index
+ * when the writer is closed.
+ */
+public class LstArchiveWriter implements Closeable {
+
+  /**
+   * How many encoded segments {@link #writeAll(Iterable, Executor)} may hold in memory, per available processor, while
+   * they wait for the segments before them to be written.
+   */
+  private static final int PENDING_SEGMENTS_PER_PROCESSOR = 4;
+
+  private final LstSerializer serializer;
+  private final DataOutputStream output;
+  private final boolean compress;
+  private final Set<Path> sourcePaths = new HashSet<>();
+  private final List<LstArchiveFormat.Entry> index = new ArrayList<>();
+  private final List<Path> removedSourcePaths = new ArrayList<>();
+  private final JavaTypeTable typeTable = new JavaTypeTable();
+  private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+  private long position;
+
+  public LstArchiveWriter(LstSerializer serializer, OutputStream outputStream) {
+    this(serializer, outputStream, false);
+  }
+
+  /**
+   * @param serializer   The serializer used to encode each source file
+   * @param outputStream The stream the archive is written to, closed when the writer is closed
+   * @param compress     If true, each segment is deflate compressed on its own
+   */
+  public LstArchiveWriter(LstSerializer serializer, OutputStream outputStream, boolean compress) {
+    this.serializer = serializer;
+    this.output = new DataOutputStream(new BufferedOutputStream(outputStream));
+    this.compress = compress;
+    try {
+      LstArchiveFormat.writeHeader(output, new LstArchiveFormat.Header(serializer.getFormat(), compress));
+      position = output.size();
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  public void write(SourceFile sourceFile) {
+    write(sourceFile, null);
+  }
+
+  /**
+   * @param contentHash The content hash recorded for the source file in the index, see {@link LstSnapshots}
+   */
+  void write(SourceFile sourceFile, @Nullable String contentHash) {
+    Path sourcePath = reserve(sourceFile);
+    append(sourcePath, encode(sourceFile, typeTable, compress ? deflater : null), contentHash);
+  }
+
+  /**
+   * Records that a source file present in an earlier archive of a snapshot chain no longer exists, see
+   * {@link LstSnapshots}.
+   */
+  void remove(Path sourcePath) {
+    if (sourcePaths.contains(sourcePath)) {
+      throw new IllegalArgumentException("The archive contains " + sourcePath + ", it cannot also remove it");
+    }
+    removedSourcePaths.add(sourcePath);
+  }
+
+  public void writeAll(Iterable<? extends SourceFile> sourceFiles) {
+    for (SourceFile sourceFile : sourceFiles) {
+      write(sourceFile);
+    }
+  }
+
+  /**
+   * Encodes the source files concurrently on the executor, for instance a {@link java.util.concurrent.ForkJoinPool} or
+   * a virtual thread per task executor, while writing them in iteration order from the calling thread. The archive is
+   * byte for byte identical to the one {@link #writeAll(Iterable)} writes. Only a bounded number of encoded segments
+   * are held in memory at any time, so the caller blocks when encoding gets ahead of writing.
+   * <p>
+   * Each source file is encoded against a type table of its own, which is merged into the archive's table in iteration
+   * order as the segment is written. When distinct source files hold distinct instances of a type, the instance stored
+   * is the one of the first source file, as it is for {@link #writeAll(Iterable)}, whatever order they were encoded in.
+   */
+  public void writeAll(Iterable<? extends SourceFile> sourceFiles, Executor executor) {
+    int maxPending = Runtime.getRuntime().availableProcessors() * PENDING_SEGMENTS_PER_PROCESSOR;
+    Deque<Path> pendingPaths = new ArrayDeque<>(maxPending);
+    Deque<CompletableFuture<Segment>> pendingSegments = new ArrayDeque<>(maxPending);
+    try {
+      for (SourceFile sourceFile : sourceFiles) {
+        pendingPaths.add(reserve(sourceFile));
+        pendingSegments.add(CompletableFuture.supplyAsync(() -> {
+          Deflater segmentDeflater = compress ? new Deflater(Deflater.BEST_SPEED) : null;
+          try {
+            return encode(sourceFile, new JavaTypeTable(), segmentDeflater);
+          } finally {
+            if (segmentDeflater != null) {
+              segmentDeflater.end();
+            }
+          }
+        }, executor));
+        if (pendingSegments.size() == maxPending) {
+          append(pendingPaths.remove(), pendingSegments.remove().join(), null);
+        }
+      }
+      while (!pendingSegments.isEmpty()) {
+        append(pendingPaths.remove(), pendingSegments.remove().join(), null);
+      }
+    } catch (RuntimeException e) {
+      // A failed encode, a duplicate source path or a failed write, no encode is left running on the executor
+      for (CompletableFuture<Segment> pending : pendingSegments) {
+        pending.cancel(false);
+      }
+      throw e instanceof CompletionException && e.getCause() instanceof RuntimeException ?
+          (RuntimeException) e.getCause() : e;
+    }
+  }
+
+  private Path reserve(SourceFile sourceFile) {
+    Path sourcePath = sourceFile.getSourcePath();
+    if (!sourcePaths.add(sourcePath)) {
+      throw new IllegalArgumentException("The archive already contains " + sourcePath);
+    }
+    return sourcePath;
+  }
+
+  private Segment encode(SourceFile sourceFile, JavaTypeTable segmentTypes, @Nullable Deflater segmentDeflater) {
+    return new Segment(
+        encode(serializer.serializeHeader(sourceFile), segmentDeflater),
+        encode(serializer.serialize(sourceFile, segmentTypes), segmentDeflater),
+        segmentTypes
+    );
+  }
+
+  private byte[] encode(byte[] segment, @Nullable Deflater segmentDeflater) {
+    try {
+      return segmentDeflater == null ? segment : LstArchiveFormat.compress(segment, segmentDeflater);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private void append(Path sourcePath, Segment segment, @Nullable String contentHash) {
+    try {
+      if (segment.types != typeTable) {
+        typeTable.addAll(segment.types);
+      }
+      output.write(segment.header);
+      output.write(segment.tree);
+      int length = segment.header.length + segment.tree.length;
+      index.add(new LstArchiveFormat.Entry(sourcePath, position, length, segment.header.length, contentHash));
+      position += length;
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  @Override
+  public void close() {
+    try {
+      long typesOffset = position;
+      byte[] types = encode(serializer.serialize(typeTable), compress ? deflater : null);
+      output.write(types);
+      position += types.length;
+      LstArchiveFormat.writeIndex(output, typesOffset, types.length, index, removedSourcePaths);
+      LstArchiveFormat.writeFooter(output, position);
+      output.close();
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    } finally {
+      deflater.end();
+    }
+  }
+
+  /**
+   * A source file's header and tree, each encoded and compressed on its own, and the type table the tree was encoded
+   * against.
+   */
+  private static class Segment {
+    final byte[] header;
+    final byte[] tree;
+    final JavaTypeTable types;
+
+    Segment(byte[] header, byte[] tree, JavaTypeTable types) {
+      this.header = header;
+      this.tree = tree;
+      this.types = types;
+    }
+  }
+}
@@ -0,0 +1,106 @@
+package org.openrewrite.contrib.serialization;
+
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link LstMetricsListener} that aggregates the object count, bytes and time of every tree and Java type class,
+ * separately for encoding and decoding. It can be shared by any number of serializers and threads.
+ */
+public class LstMetrics implements LstMetricsListener {
+
+  @Value
+  public static class TypeMetrics {
+    Class<?> type;
+    long count;
+    long bytes;
+    long nanos;
+  }
+
+  private final Map<Class<?>, Counters> encoded = new ConcurrentHashMap<>();
+  private final Map<Class<?>, Counters> decoded = new ConcurrentHashMap<>();
+
+  @Override
+  public void encoded(Class<?> type, long bytes, long nanos) {
+    encoded.computeIfAbsent(type, t -> new Counters()).add(bytes, nanos);
+  }
+
+  @Override
+  public void decoded(Class<?> type, long bytes, long nanos) {
+    decoded.computeIfAbsent(type, t -> new Counters()).add(bytes, nanos);
+  }
+
+  /**
+   * @return The metrics of every encoded type, the types that account for the most bytes first
+   */
+  public List<TypeMetrics> getEncoded() {
+    return snapshot(encoded, false);
+  }
+
+  /**
+   * @return The metrics of every decoded type, the types that account for the most bytes first
+   */
+  public List<TypeMetrics> getDecoded() {
+    return snapshot(decoded, false);
+  }
+
+  public long getBytesWritten() {
+    return encoded.values().stream().mapToLong(counters -> counters.bytes.sum()).sum();
+  }
+
+  public long getBytesRead() {
+    return decoded.values().stream().mapToLong(counters -> counters.bytes.sum()).sum();
+  }
+
+  public void reset() {
+    encoded.clear();
+    decoded.clear();
+  }
+
+  /**
+   * @return The metrics of the types encoded since the previous call, resetting them
+   */
+  List<TypeMetrics> drainEncoded() {
+    return snapshot(encoded, true);
+  }
+
+  /**
+   * @return The metrics of the types decoded since the previous call, resetting them
+   */
+  List<TypeMetrics> drainDecoded() {
+    return snapshot(decoded, true);
+  }
+
+  private static List<TypeMetrics> snapshot(Map<Class<?>, Counters> countersByType, boolean reset) {
+    List<TypeMetrics> metrics = new ArrayList<>(countersByType.size());
+    for (Map.Entry<Class<?>, Counters> entry : countersByType.entrySet()) {
+      Counters counters = entry.getValue();
+      TypeMetrics typeMetrics = reset ?
+          new TypeMetrics(entry.getKey(), counters.count.sumThenReset(), counters.bytes.sumThenReset(), counters.nanos.sumThenReset()) :
+          new TypeMetrics(entry.getKey(), counters.count.sum(), counters.bytes.sum(), counters.nanos.sum());
+      if (typeMetrics.getCount() > 0) {
+        metrics.add(typeMetrics);
+      }
+    }
+    metrics.sort(Comparator.comparingLong(TypeMetrics::getBytes).reversed());
+    return metrics;
+  }
+
+  private static class Counters {
+    final LongAdder count = new LongAdder();
+    final LongAdder bytes = new LongAdder();
+    final LongAdder nanos = new LongAdder();
+
+    void add(long bytes, long nanos) {
+      this.count.increment();
+      this.bytes.add(bytes);
+      this.nanos.add(nanos);
+    }
+  }
+}
@@ -0,0 +1,47 @@
+package org.openrewrite.contrib.serialization;
+
+/**
+ * Receives a callback from {@link LstSerializer} for every tree and Java type it encodes or decodes, see
+ * {@link LstSerializer#withMetricsListener(LstMetricsListener)}. The bytes and time passed to the callbacks only cover
+ * the object itself and not the trees and types nested in it, which are reported separately, so that summing them up
+ * per type shows where payload size and time actually go.
+ * <p>
+ * Callbacks are made on the encoding or decoding thread, so implementations must be thread-safe and cheap.
+ * {@link LstMetrics} aggregates them per type and {@link JfrLstMetricsListener} turns them into JFR events.
+ */
+public interface LstMetricsListener {
+
+  /**
+   * @param type  The class of the tree or Java type, for instance {@code J.MethodInvocation} or {@code JavaType.Class}
+   * @param bytes The bytes written for the object itself
+   * @param nanos The time spent encoding the object itself
+   */
+  void encoded(Class<?> type, long bytes, long nanos);
+
+  /**
+   * @param type  The class of the tree or Java type
+   * @param bytes The bytes read for the object itself
+   * @param nanos The time spent decoding the object itself
+   */
+  void decoded(Class<?> type, long bytes, long nanos);
+
+  /**
+   * @return A listener passing every callback to this listener and then to the other one
+   */
+  default LstMetricsListener andThen(LstMetricsListener other) {
+    LstMetricsListener first = this;
+    return new LstMetricsListener() {
+      @Override
+      public void encoded(Class<?> type, long bytes, long nanos) {
+        first.encoded(type, bytes, nanos);
+        other.encoded(type, bytes, nanos);
+      }
+
+      @Override
+      public void decoded(Class<?> type, long bytes, long nanos) {
+        first.decoded(type, bytes, nanos);
+        other.decoded(type, bytes, nanos);
+      }
+    };
+  }
+}
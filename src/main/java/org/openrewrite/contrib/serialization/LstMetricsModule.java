@@ -0,0 +1,230 @@
+package org.openrewrite.contrib.serialization;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.fasterxml.jackson.databind.*;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerModifier;
+import com.fasterxml.jackson.databind.deser.std.DelegatingDeserializer;
+import com.fasterxml.jackson.databind.jsontype.TypeDeserializer;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.databind.ser.ContextualSerializer;
+import com.fasterxml.jackson.databind.ser.ResolvableSerializer;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.Tree;
+import org.openrewrite.java.tree.JavaType;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Reports every tree and Java type that is encoded or decoded to a {@link LstMetricsListener}. The serializers and
+ * deserializers of those classes are wrapped to measure the bytes and time spent between the start and the end of each
+ * object. Objects nest, so each thread keeps a stack of the objects in progress, and the bytes and time of a nested
+ * object are subtracted from the object that contains it before it is reported.
+ * <p>
+ * Written bytes are the generator's buffered bytes plus what it already flushed to its target, which must be either the
+ * {@link ByteArrayBuilder} of {@link ObjectMapper#writeValueAsBytes} or a {@link CountingOutputStream}. Read bytes are
+ * the byte offsets of the parser.
+ */
+class LstMetricsModule extends SimpleModule {
+
+  private final LstMetricsListener listener;
+  private final ThreadLocal<Deque<Frame>> frames = ThreadLocal.withInitial(ArrayDeque::new);
+
+  /**
+   * Set by a typed deserialization while it resolves the concrete deserializer, which must not measure the object a
+   * second time.
+   */
+  private final ThreadLocal<Boolean> measuringTyped = ThreadLocal.withInitial(() -> false);
+
+  LstMetricsModule(LstMetricsListener listener) {
+    super("LstMetricsModule");
+    this.listener = listener;
+    setSerializerModifier(new BeanSerializerModifier() {
+      @Override
+      public JsonSerializer<?> modifySerializer(SerializationConfig config, BeanDescription beanDesc, JsonSerializer<?> serializer) {
+        return isMeasured(beanDesc) ? new MetricsSerializer(serializer) : serializer;
+      }
+    });
+    setDeserializerModifier(new BeanDeserializerModifier() {
+      @Override
+      public JsonDeserializer<?> modifyDeserializer(DeserializationConfig config, BeanDescription beanDesc, JsonDeserializer<?> deserializer) {
+        return isMeasured(beanDesc) ? new MetricsDeserializer(deserializer) : deserializer;
+      }
+
+      @Override
+      public JsonDeserializer<?> modifyEnumDeserializer(DeserializationConfig config, com.fasterxml.jackson.databind.JavaType type,
+                                                        BeanDescription beanDesc, JsonDeserializer<?> deserializer) {
+        return isMeasured(beanDesc) ? new MetricsDeserializer(deserializer) : deserializer;
+      }
+    });
+  }
+
+  private static boolean isMeasured(BeanDescription beanDesc) {
+    return Tree.class.isAssignableFrom(beanDesc.getBeanClass()) || JavaType.class.isAssignableFrom(beanDesc.getBeanClass());
+  }
+
+  private static long position(JsonGenerator gen) {
+    Object target = gen.getOutputTarget();
+    long flushed = target instanceof CountingOutputStream ? ((CountingOutputStream) target).getCount() :
+        target instanceof ByteArrayBuilder ? ((ByteArrayBuilder) target).size() : 0;
+    return flushed + Math.max(gen.getOutputBuffered(), 0);
+  }
+
+  private static long startPosition(JsonParser p) {
+    return Math.max(p.currentTokenLocation().getByteOffset(), 0);
+  }
+
+  private static long endPosition(JsonParser p) {
+    return Math.max(p.currentLocation().getByteOffset(), 0);
+  }
+
+  private Frame push(long position) {
+    Frame frame = new Frame(position, System.nanoTime());
+    frames.get().push(frame);
+    return frame;
+  }
+
+  /**
+   * Pops the frame, adds its total bytes and time to its parent and reports the bytes and time of the object itself,
+   * without its nested objects.
+   */
+  private void pop(Frame frame, long position, @Nullable Object value, boolean encoded) {
+    Deque<Frame> stack = frames.get();
+    stack.pop();
+    long bytes = Math.max(position - frame.position, 0);
+    long nanos = System.nanoTime() - frame.nanos;
+    Frame parent = stack.peek();
+    if (parent != null) {
+      parent.nestedBytes += bytes;
+      parent.nestedNanos += nanos;
+    }
+    if (value == null) {
+      return;
+    }
+    if (encoded) {
+      listener.encoded(value.getClass(), bytes - frame.nestedBytes, nanos - frame.nestedNanos);
+    } else {
+      listener.decoded(value.getClass(), bytes - frame.nestedBytes, nanos - frame.nestedNanos);
+    }
+  }
+
+  private static class Frame {
+    final long position;
+    final long nanos;
+    long nestedBytes;
+    long nestedNanos;
+
+    Frame(long position, long nanos) {
+      this.position = position;
+      this.nanos = nanos;
+    }
+  }
+
+  private class MetricsSerializer extends JsonSerializer<Object> implements ContextualSerializer, ResolvableSerializer {
+    private final JsonSerializer<Object> delegate;
+
+    @SuppressWarnings("unchecked")
+    MetricsSerializer(JsonSerializer<?> delegate) {
+      this.delegate = (JsonSerializer<Object>) delegate;
+    }
+
+    @Override
+    public void serialize(Object value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+      Frame frame = push(position(gen));
+      try {
+        delegate.serialize(value, gen, serializers);
+      } finally {
+        pop(frame, position(gen), value, true);
+      }
+    }
+
+    @Override
+    public void serializeWithType(Object value, JsonGenerator gen, SerializerProvider serializers, TypeSerializer typeSer) throws IOException {
+      Frame frame = push(position(gen));
+      try {
+        delegate.serializeWithType(value, gen, serializers, typeSer);
+      } finally {
+        pop(frame, position(gen), value, true);
+      }
+    }
+
+    @Override
+    public JsonSerializer<?> createContextual(SerializerProvider prov, BeanProperty property) throws JsonMappingException {
+      JsonSerializer<?> contextual = prov.handlePrimaryContextualization(delegate, property);
+      return contextual == delegate ? this : new MetricsSerializer(contextual);
+    }
+
+    @Override
+    public void resolve(SerializerProvider provider) throws JsonMappingException {
+      if (delegate instanceof ResolvableSerializer) {
+        ((ResolvableSerializer) delegate).resolve(provider);
+      }
+    }
+
+    @Override
+    public boolean usesObjectId() {
+      return delegate.usesObjectId();
+    }
+
+    @Override
+    public boolean isEmpty(SerializerProvider provider, Object value) {
+      return delegate.isEmpty(provider, value);
+    }
+
+    @Override
+    public Class<Object> handledType() {
+      return delegate.handledType();
+    }
+
+    @Override
+    public JsonSerializer<?> getDelegatee() {
+      return delegate;
+    }
+  }
+
+  private class MetricsDeserializer extends DelegatingDeserializer {
+
+    MetricsDeserializer(JsonDeserializer<?> delegate) {
+      super(delegate);
+    }
+
+    @Override
+    protected JsonDeserializer<?> newDelegatingInstance(JsonDeserializer<?> newDelegatee) {
+      return new MetricsDeserializer(newDelegatee);
+    }
+
+    @Override
+    public Object deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+      if (measuringTyped.get()) {
+        // The typed deserialization that resolved this deserializer already measures the object
+        measuringTyped.set(false);
+        return super.deserialize(p, ctxt);
+      }
+      Frame frame = push(startPosition(p));
+      Object value = null;
+      try {
+        return value = super.deserialize(p, ctxt);
+      } finally {
+        pop(frame, endPosition(p), value, false);
+      }
+    }
+
+    @Override
+    public Object deserializeWithType(JsonParser p, DeserializationContext ctxt, TypeDeserializer typeDeserializer) throws IOException {
+      Frame frame = push(startPosition(p));
+      Object value = null;
+      measuringTyped.set(true);
+      try {
+        return value = super.deserializeWithType(p, ctxt, typeDeserializer);
+      } finally {
+        measuringTyped.set(false);
+        pop(frame, endPosition(p), value, false);
+      }
+    }
+  }
+}
@@ -0,0 +1,224 @@
+package org.openrewrite.contrib.serialization;
+
+import lombok.Value;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.Parser;
+import org.openrewrite.SourceFile;
+import org.openrewrite.java.internal.JavaTypeCache;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A content-addressed, on-disk cache of parsed source files, encoded with an {@link LstSerializer}. Each source file is
+ * stored in its own file named after its key, see {@link CachingParser} for how keys are derived from the source text
+ * and the parser configuration. An entry holds the source file's {@link JavaTypeTable} followed by its tree, so that
+ * its types can be resolved through a parser's type cache when it is read.
+ * <p>
+ * The cache is bounded in size: reading an entry marks it as recently used, and once the entries add up to more than
+ * the maximum size, the least recently used ones are deleted until the cache is back under 90% of the maximum, so that
+ * eviction does not run on every write. Entries are written to a temporary file and then moved in place, so a cache
+ * directory can be shared by concurrent threads and processes.
+ */
+public class LstParseCache {
+
+  private static final String EXTENSION = ".lst";
+
+  private final Path directory;
+  private final long maxBytes;
+  private final LstSerializer serializer;
+  private final AtomicLong size = new AtomicLong();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  public LstParseCache(Path directory, long maxBytes) {
+    this(directory, maxBytes, new LstSerializer(LstSerializer.Format.SMILE));
+  }
+
+  /**
+   * @param directory  The cache directory, created if it does not exist
+   * @param maxBytes   The size the entries may add up to before the least recently used ones are evicted
+   * @param serializer The serializer the entries are encoded with
+   */
+  public LstParseCache(Path directory, long maxBytes, LstSerializer serializer) {
+    this.directory = directory;
+    this.maxBytes = maxBytes;
+    this.serializer = serializer;
+    try {
+      Files.createDirectories(directory);
+      size.set(entries().stream().mapToLong(Entry::getSize).sum());
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * Wraps a parser builder so that the parsers it builds read from and write to this cache, see {@link CachingParser}.
+   */
+  public CachingParser.Builder wrap(Parser.Builder parserBuilder) {
+    return new CachingParser.Builder(this, parserBuilder);
+  }
+
+  LstSerializer getSerializer() {
+    return serializer;
+  }
+
+  /**
+   * @return The cached source file, or null if there is no entry for the key or it cannot be decoded
+   */
+  public @Nullable SourceFile get(String key) {
+    return get(key, null);
+  }
+
+  /**
+   * @param typeCache If not null, the types of the cached source file are resolved through this cache, so that they are
+   *                  shared with the source files parsed with it, see {@link JavaTypeTable#intern(JavaTypeCache)}
+   * @return The cached source file, or null if there is no entry for the key or it cannot be decoded
+   */
+  public @Nullable SourceFile get(String key, @Nullable JavaTypeCache typeCache) {
+    Path entry = entry(key);
+    try {
+      byte[] bytes = Files.readAllBytes(entry);
+      int typesLength = ByteBuffer.wrap(bytes).getInt();
+      JavaTypeTable typeTable = serializer.deserializeTypeTable(
+          new ByteArrayInputStream(bytes, Integer.BYTES, typesLength), typeCache);
+      int treeOffset = Integer.BYTES + typesLength;
+      SourceFile sourceFile = serializer.deserializeSourceFile(
+          new ByteArrayInputStream(bytes, treeOffset, bytes.length - treeOffset), typeTable);
+      Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+      hits.increment();
+      return sourceFile;
+    } catch (NoSuchFileException e) {
+      misses.increment();
+      return null;
+    } catch (IOException | RuntimeException e) {
+      // An entry written by another serializer format or another version of the trees, parse the source again
+      remove(entry);
+      misses.increment();
+      return null;
+    }
+  }
+
+  public void put(String key, SourceFile sourceFile) {
+    Path entry = entry(key);
+    JavaTypeTable typeTable = new JavaTypeTable();
+    byte[] tree = serializer.serialize(sourceFile, typeTable);
+    byte[] types = serializer.serialize(typeTable);
+    byte[] bytes = ByteBuffer.allocate(Integer.BYTES + types.length + tree.length)
+        .putInt(types.length).put(types).put(tree).array();
+    try {
+      Files.createDirectories(entry.getParent());
+      Path temp = Files.createTempFile(entry.getParent(), key, ".tmp");
+      try {
+        Files.write(temp, bytes);
+        long replaced = Files.exists(entry) ? Files.size(entry) : 0;
+        Files.move(temp, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        size.addAndGet(bytes.length - replaced);
+      } finally {
+        Files.deleteIfExists(temp);
+      }
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+    if (size.get() > maxBytes) {
+      evict();
+    }
+  }
+
+  /**
+   * @return The total size of the entries
+   */
+  public long getSize() {
+    return size.get();
+  }
+
+  public long getHits() {
+    return hits.sum();
+  }
+
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  /**
+   * Deletes every entry.
+   */
+  public synchronized void clear() {
+    for (Entry entry : entries()) {
+      remove(entry.getPath());
+    }
+  }
+
+  /**
+   * Deletes the least recently used entries until the cache is under 90% of its maximum size.
+   */
+  private synchronized void evict() {
+    long target = maxBytes / 10 * 9;
+    if (size.get() <= target) {
+      return;
+    }
+    List<Entry> entries = entries();
+    entries.sort(Comparator.comparing(Entry::getLastUsed));
+    for (Entry entry : entries) {
+      if (size.get() <= target) {
+        break;
+      }
+      remove(entry.getPath());
+    }
+  }
+
+  private void remove(Path entry) {
+    try {
+      long entrySize = Files.size(entry);
+      if (Files.deleteIfExists(entry)) {
+        size.addAndGet(-entrySize);
+      }
+    } catch (IOException ignored) {
+      // Already removed, or in use by another process that will remove it
+    }
+  }
+
+  private Path entry(String key) {
+    // Spread the entries over subdirectories so that no directory holds too many files
+    return directory.resolve(key.substring(0, 2)).resolve(key + EXTENSION);
+  }
+
+  private List<Entry> entries() {
+    try (Stream<Path> files = Files.walk(directory)) {
+      return files
+          .filter(file -> file.getFileName().toString().endsWith(EXTENSION))
+          .map(file -> {
+            try {
+              BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+              return new Entry(file, attributes.size(), attributes.lastModifiedTime());
+            } catch (IOException e) {
+              return null;
+            }
+          })
+          .filter(Objects::nonNull)
+          .collect(Collectors.toCollection(ArrayList::new));
+    } catch (IOException | UncheckedIOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  @Value
+  private static class Entry {
+    Path path;
+    long size;
+    FileTime lastUsed;
+  }
+}
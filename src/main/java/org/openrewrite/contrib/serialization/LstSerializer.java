@@ -2,36 +2,135 @@ package org.openrewrite.contrib.serialization;
 
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.databind.cfg.CoercionAction;
 import com.fasterxml.jackson.databind.cfg.CoercionInputShape;
+import com.fasterxml.jackson.databind.cfg.MapperBuilder;
 import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
 import com.fasterxml.jackson.databind.type.LogicalType;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import org.jspecify.annotations.Nullable;
 import org.openrewrite.SourceFile;
+import org.openrewrite.java.internal.JavaTypeCache;
+import org.openrewrite.java.tree.JavaType;
 
 import java.io.*;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class LstSerializer {
 
+  /**
+   * The wire format used to encode source files. All formats share the same Jackson configuration, so a serializer can
+   * read back exactly what it writes, but payloads cannot be read by a serializer configured with a different format.
+   */
+  public enum Format {
+    /**
+     * Indented JSON, the most readable option and the default.
+     */
+    JSON,
+    /**
+     * JSON without any indentation or line breaks.
+     */
+    JSON_COMPACT,
+    /**
+     * Jackson's binary JSON format, with back-references enabled for repeated names and short string values (whitespace,
+     * identifiers) so that they are only encoded once per payload.
+     */
+    SMILE,
+    /**
+     * The Concise Binary Object Representation (RFC 8949).
+     */
+    CBOR
+  }
+
+  private final Format format;
+  private final @Nullable StringInterner stringInterner;
+  private final @Nullable LstMetricsListener metricsListener;
   private final ObjectMapper objectMapper;
+  private final ObjectReader sourceFileReader;
+  private final ObjectWriter sourceFileWriter;
+  private final ObjectWriter contentHashWriter;
 
   public LstSerializer() {
+    this(Format.JSON);
+  }
+
+  public LstSerializer(Format format) {
+    this(format, null, null);
+  }
+
+  private LstSerializer(Format format, @Nullable StringInterner stringInterner,
+                        @Nullable LstMetricsListener metricsListener) {
+    this.format = format;
+    this.stringInterner = stringInterner;
+    this.metricsListener = metricsListener;
+
+    objectMapper = newObjectMapper(format);
+    if (metricsListener != null) {
+      // Registered before the type table module so that it wraps it and also measures the types written as references
+      objectMapper.registerModule(new LstMetricsModule(metricsListener));
+    }
+    objectMapper.registerModule(new JavaTypeTableModule());
+    if (stringInterner != null) {
+      objectMapper.registerModule(new SimpleModule("StringInterner")
+          .addDeserializer(String.class, new InterningStringDeserializer(stringInterner)));
+    }
+    sourceFileReader = objectMapper.readerFor(SourceFile.class);
+    sourceFileWriter = objectMapper.writerFor(SourceFile.class);
 
-    objectMapper = JsonMapper.builder()
+    // Tree and marker ids are random for every parse, leave them out so that the hash only changes with the content
+    contentHashWriter = newObjectMapper(format)
+        .registerModule(new SimpleModule("ContentHash").addSerializer(UUID.class, new StdSerializer<UUID>(UUID.class) {
+          @Override
+          public void serialize(UUID value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeString("");
+          }
+        }))
+        .writerFor(SourceFile.class);
+  }
+
+  private static ObjectMapper newObjectMapper(Format format) {
+    ObjectMapper objectMapper = mapperBuilder(format)
         .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
         .serializationInclusion(JsonInclude.Include.NON_NULL)
-        .enable(SerializationFeature.INDENT_OUTPUT)
+        .configure(SerializationFeature.INDENT_OUTPUT, format == Format.JSON)
         .build()
         .registerModule(new ParameterNamesModule())
-        .registerModule(new JavaTimeModule());
+        .registerModule(new JavaTimeModule())
+        .registerModule(new RelativePathModule());
 
     objectMapper.coercionConfigFor(LogicalType.Collection)
         .setCoercion(CoercionInputShape.EmptyString, CoercionAction.AsNull)
@@ -43,11 +142,59 @@ public class LstSerializer {
             .withGetterVisibility(JsonAutoDetect.Visibility.NONE)
             .withIsGetterVisibility(JsonAutoDetect.Visibility.NONE)
     );
+    return objectMapper;
+  }
+
+  private static MapperBuilder<?, ?> mapperBuilder(Format format) {
+    switch (format) {
+      case SMILE:
+        return SmileMapper.builder(SmileFactory.builder()
+            .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+            .build());
+      case CBOR:
+        return CBORMapper.builder();
+      case JSON:
+      case JSON_COMPACT:
+      default:
+        return JsonMapper.builder();
+    }
+  }
+
+  public Format getFormat() {
+    return format;
+  }
+
+  public @Nullable StringInterner getStringInterner() {
+    return stringInterner;
+  }
+
+  /**
+   * @param stringInterner The pool that every decoded string goes through, or null to decode each string as a separate
+   *                       instance, which is the default
+   * @return A serializer with the same format that interns decoded strings with the given pool
+   */
+  public LstSerializer withStringInterner(@Nullable StringInterner stringInterner) {
+    return stringInterner == this.stringInterner ? this : new LstSerializer(format, stringInterner, metricsListener);
+  }
+
+  public @Nullable LstMetricsListener getMetricsListener() {
+    return metricsListener;
+  }
+
+  /**
+   * @param metricsListener The listener told about every tree and Java type encoded or decoded, or null to not collect
+   *                        any metrics, which is the default
+   * @return A serializer with the same format and string interner that reports to the given listener
+   */
+  public LstSerializer withMetricsListener(@Nullable LstMetricsListener metricsListener) {
+    return metricsListener == this.metricsListener ? this : new LstSerializer(format, stringInterner, metricsListener);
   }
 
   public void serialize(List<SourceFile> sourceFiles, OutputStream outputStream) {
     try {
-      objectMapper.writeValue(outputStream, sourceFiles);
+      // The metrics need to know how many bytes the generator has already flushed to the stream
+      objectMapper.writeValue(metricsListener == null ? outputStream : new CountingOutputStream(outputStream),
+          new SourceFileList(sourceFiles));
     } catch (IOException e) {
       throw new RuntimeException(e);
     }
@@ -71,6 +218,95 @@ public class LstSerializer {
     }
   }
 
+  /**
+   * Encodes the source files straight into the channel through a pooled direct buffer, without first copying the whole
+   * payload into an array. The channel must be in blocking mode and is left open.
+   */
+  public void serialize(List<SourceFile> sourceFiles, WritableByteChannel channel) {
+    serialize(sourceFiles, new ChannelOutputStream(channel));
+  }
+
+  /**
+   * Decodes the source files from a blocking channel through a pooled direct buffer. The channel is left open.
+   */
+  public List<SourceFile> deserialize(ReadableByteChannel channel) {
+    return deserialize(new ChannelInputStream(channel));
+  }
+
+  /**
+   * Incrementally decodes the source files from a blocking channel, see {@link #iterator(InputStream)}. Closing the
+   * iterator leaves the channel open.
+   */
+  public SourceFileIterator iterator(ReadableByteChannel channel) {
+    return iterator(new ChannelInputStream(channel));
+  }
+
+  /**
+   * Encodes the source files on the executor while writing them to the file asynchronously, starting at the given
+   * position. The calling thread returns immediately, and the encoding thread only waits on the file when it gets a full
+   * buffer ahead of it. The channel is left open.
+   *
+   * @return A future that completes once every byte has been written to the channel
+   */
+  public CompletableFuture<Void> serializeAsync(List<SourceFile> sourceFiles, AsynchronousFileChannel channel,
+                                                long position, Executor executor) {
+    return CompletableFuture.runAsync(() -> serialize(sourceFiles, new AsyncFileOutputStream(channel, position)), executor);
+  }
+
+  /**
+   * Decodes the source files on the executor, starting at the given file position, while the following part of the file
+   * is read ahead asynchronously. The channel is left open.
+   */
+  public CompletableFuture<List<SourceFile>> deserializeAsync(AsynchronousFileChannel channel, long position,
+                                                              Executor executor) {
+    return CompletableFuture.supplyAsync(() -> deserialize(new AsyncFileInputStream(channel, position)), executor);
+  }
+
+  /**
+   * Incrementally decodes the top-level array written by {@link #serialize(List, OutputStream)}, materializing a single
+   * {@link SourceFile} at a time. The returned iterator must be closed, which also closes the input stream.
+   *
+   * @param inputStream The serialized source files
+   * @return An iterator that decodes the next source file each time it is advanced
+   */
+  public SourceFileIterator iterator(InputStream inputStream) {
+    try {
+      JsonParser parser = objectMapper.createParser(inputStream);
+      JsonToken token = parser.nextToken();
+      if (token != JsonToken.START_ARRAY) {
+        parser.close();
+        throw new IllegalArgumentException("Expected an array of source files but found " + token);
+      }
+      // Leave the parser positioned just inside the array, the iterator will then read one element per call and stop
+      // at the closing END_ARRAY token. All elements share one deserialization context so that object ids written once
+      // for the whole payload (types, markers) resolve across source files.
+      parser.clearCurrentToken();
+      return new SourceFileIterator(sourceFileReader.readValues(parser));
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * Lazily decodes the source files from the input stream, see {@link #iterator(InputStream)}. The stream must be closed
+   * once consumed, which also closes the input stream.
+   */
+  public Stream<SourceFile> stream(InputStream inputStream) {
+    SourceFileIterator iterator = iterator(inputStream);
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+        .onClose(iterator::close);
+  }
+
+  /**
+   * Decodes the source files from the input stream one at a time, passing each one to the action before decoding the
+   * next one. The input stream is closed once all source files have been consumed.
+   */
+  public void forEach(InputStream inputStream, Consumer<? super SourceFile> action) {
+    try (SourceFileIterator iterator = iterator(inputStream)) {
+      iterator.forEachRemaining(action);
+    }
+  }
+
   public byte[] serialize(List<SourceFile> sourceFiles) {
     try {
       SourceFileList typeAwareList = new SourceFileList(sourceFiles);
@@ -80,6 +316,135 @@ public class LstSerializer {
     }
   }
 
+  /**
+   * Encodes a single source file as a self-contained payload, which can be decoded independently of any other source
+   * file with {@link #deserializeSourceFile(byte[])}.
+   */
+  public byte[] serialize(SourceFile sourceFile) {
+    try {
+      return sourceFileWriter.writeValueAsBytes(sourceFile);
+    } catch (JsonProcessingException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * Encodes a single source file with every Java type written as a reference into the type table, which receives any
+   * type it does not hold yet. The source file can only be decoded with the same table, see
+   * {@link #deserializeSourceFile(InputStream, JavaTypeTable)}.
+   */
+  public byte[] serialize(SourceFile sourceFile, JavaTypeTable typeTable) {
+    try {
+      return sourceFileWriter.withAttribute(JavaTypeTable.class, typeTable).writeValueAsBytes(sourceFile);
+    } catch (JsonProcessingException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  public SourceFile deserializeSourceFile(InputStream inputStream, JavaTypeTable typeTable) {
+    try {
+      return sourceFileReader.withAttribute(JavaTypeTable.class, typeTable).readValue(inputStream);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * Encodes the {@link SourceFileHeader} of a source file. Headers hold no Java types, so they are encoded and decoded
+   * without a type table.
+   */
+  public byte[] serializeHeader(SourceFile sourceFile) {
+    try {
+      return objectMapper.writerFor(SourceFileHeader.class).writeValueAsBytes(SourceFileHeader.of(sourceFile));
+    } catch (JsonProcessingException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  public SourceFileHeader deserializeHeader(InputStream inputStream) {
+    try {
+      return objectMapper.readerFor(SourceFileHeader.class).readValue(inputStream);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  public byte[] serialize(JavaTypeTable typeTable) {
+    try {
+      return objectMapper.writerFor(new TypeReference<Map<String, JavaType>>() {
+      }).writeValueAsBytes(typeTable.getTypes());
+    } catch (JsonProcessingException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  public JavaTypeTable deserializeTypeTable(InputStream inputStream) {
+    return deserializeTypeTable(inputStream, null);
+  }
+
+  /**
+   * @param typeCache If not null, every type reachable from the decoded table is resolved through this cache before
+   *                  the table is returned, see {@link JavaTypeTable#intern(JavaTypeCache)}
+   */
+  public JavaTypeTable deserializeTypeTable(InputStream inputStream, @Nullable JavaTypeCache typeCache) {
+    try {
+      JavaTypeTable typeTable = new JavaTypeTable(objectMapper.readValue(inputStream,
+          new TypeReference<Map<String, JavaType>>() {
+          }));
+      return typeCache == null ? typeTable : typeTable.intern(typeCache);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  public SourceFile deserializeSourceFile(InputStream inputStream) {
+    try {
+      return sourceFileReader.readValue(inputStream);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  public SourceFile deserializeSourceFile(byte[] bytes) {
+    try {
+      return sourceFileReader.readValue(bytes);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * Computes a SHA-256 hash of everything that is serialized for the source file (the tree, its markers and its types)
+   * except for the ids of trees and markers, which are different every time a file is parsed. Parsing the same file
+   * again with the same configuration therefore yields the same hash.
+   * <p>
+   * The hash is computed by encoding the whole source file, so it costs as much as serializing it. It can save writing
+   * and storing the bytes of unchanged source files, not the time to encode them.
+   *
+   * @return The hash as a lowercase hexadecimal string
+   */
+  public String contentHash(SourceFile sourceFile) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      contentHashWriter.writeValue(new DigestOutputStream(new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+      }, digest), sourceFile);
+      StringBuilder hex = new StringBuilder(64);
+      for (byte b : digest.digest()) {
+        hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+      }
+      return hex.toString();
+    } catch (NoSuchAlgorithmException | IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
   /**
    * This is to get around type erasure issues when serializing a list of SourceFile. If you attempt to directly
    * serialize the List<SourceFile>, Jackson will not be able to determine the type information for the elements in the list.
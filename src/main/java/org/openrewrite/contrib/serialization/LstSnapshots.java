@@ -0,0 +1,101 @@
+package org.openrewrite.contrib.serialization;
+
+import org.openrewrite.SourceFile;
+
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Snapshots of a set of source files kept as a chain of {@link LstArchive}s: a base snapshot holding every source file,
+ * followed by deltas that only hold the source files added or changed since the previous snapshot and the paths of the
+ * source files removed since then. Changes are detected by comparing {@link LstSerializer#contentHash(SourceFile)}
+ * against the manifest of the previous snapshot, which maps every source path to its content hash. Every source file is
+ * still encoded once to compute its hash, a delta only saves the bytes written for the unchanged ones.
+ */
+public class LstSnapshots {
+
+  /**
+   * Writes a base snapshot holding every source file.
+   *
+   * @return The manifest of the snapshot, to pass to the next {@link #writeDelta}
+   */
+  public static Map<Path, String> writeSnapshot(LstSerializer serializer, Iterable<? extends SourceFile> sourceFiles,
+                                                OutputStream outputStream, boolean compress) {
+    return writeDelta(serializer, Collections.emptyMap(), sourceFiles, outputStream, compress);
+  }
+
+  /**
+   * Writes a delta holding only the source files whose content hash differs from the previous manifest, along with the
+   * paths of the previous manifest that are no longer present.
+   *
+   * @param previousManifest The manifest of the snapshot chain the delta applies to, see {@link #manifest(List)}
+   * @param sourceFiles      The complete current set of source files
+   * @return The manifest of the snapshot chain once the delta is applied
+   */
+  public static Map<Path, String> writeDelta(LstSerializer serializer, Map<Path, String> previousManifest,
+                                             Iterable<? extends SourceFile> sourceFiles, OutputStream outputStream,
+                                             boolean compress) {
+    Map<Path, String> manifest = new LinkedHashMap<>();
+    try (LstArchiveWriter writer = new LstArchiveWriter(serializer, outputStream, compress)) {
+      for (SourceFile sourceFile : sourceFiles) {
+        String contentHash = serializer.contentHash(sourceFile);
+        manifest.put(sourceFile.getSourcePath(), contentHash);
+        if (!contentHash.equals(previousManifest.get(sourceFile.getSourcePath()))) {
+          writer.write(sourceFile, contentHash);
+        }
+      }
+      for (Path previous : previousManifest.keySet()) {
+        if (!manifest.containsKey(previous)) {
+          writer.remove(previous);
+        }
+      }
+    }
+    return manifest;
+  }
+
+  /**
+   * @param chain A base snapshot followed by its deltas, oldest first
+   * @return The content hash of every source file in the snapshot chain
+   */
+  public static Map<Path, String> manifest(List<LstArchive> chain) {
+    Map<Path, String> manifest = new LinkedHashMap<>();
+    for (Map.Entry<Path, LstArchive> entry : resolve(chain).entrySet()) {
+      manifest.put(entry.getKey(), Objects.requireNonNull(entry.getValue().getContentHash(entry.getKey())));
+    }
+    return manifest;
+  }
+
+  /**
+   * Rebuilds the complete set of source files from a snapshot chain, decoding each source file from the most recent
+   * archive that holds it. Source files are returned in the order they were first added to the chain.
+   *
+   * @param chain A base snapshot followed by its deltas, oldest first
+   */
+  public static List<SourceFile> restore(List<LstArchive> chain) {
+    List<SourceFile> sourceFiles = new ArrayList<>();
+    for (Map.Entry<Path, LstArchive> entry : resolve(chain).entrySet()) {
+      sourceFiles.add(Objects.requireNonNull(entry.getValue().read(entry.getKey())));
+    }
+    return sourceFiles;
+  }
+
+  /**
+   * @return The archive holding the current version of each source path
+   */
+  private static Map<Path, LstArchive> resolve(List<LstArchive> chain) {
+    Map<Path, LstArchive> current = new LinkedHashMap<>();
+    for (LstArchive archive : chain) {
+      for (Path removed : archive.getRemovedSourcePaths()) {
+        current.remove(removed);
+      }
+      for (Path sourcePath : archive.getSourcePaths()) {
+        if (archive.getContentHash(sourcePath) == null) {
+          throw new IllegalArgumentException("The archive holding " + sourcePath + " is not a snapshot");
+        }
+        current.put(sourcePath, archive);
+      }
+    }
+    return current;
+  }
+}
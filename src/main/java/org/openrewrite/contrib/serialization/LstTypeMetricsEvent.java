@@ -0,0 +1,33 @@
+package org.openrewrite.contrib.serialization;
+
+import jdk.jfr.*;
+
+/**
+ * The JFR event emitted by {@link JfrLstMetricsListener}, once per period for every type encoded or decoded during the
+ * period.
+ */
+@Name("org.openrewrite.contrib.LstTypeMetrics")
+@Label("LST Type Metrics")
+@Category({"OpenRewrite", "Serialization"})
+@Description("Objects, bytes and time spent encoding or decoding one tree or Java type class since the previous period")
+@Period("10 s")
+@StackTrace(false)
+class LstTypeMetricsEvent extends Event {
+
+  @Label("Operation")
+  String operation;
+
+  @Label("Type")
+  Class<?> type;
+
+  @Label("Objects")
+  long count;
+
+  @Label("Bytes")
+  @DataAmount
+  long bytes;
+
+  @Label("Time")
+  @Timespan
+  long nanos;
+}
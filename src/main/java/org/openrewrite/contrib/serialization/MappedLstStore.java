@@ -0,0 +1,247 @@
+package org.openrewrite.contrib.serialization;
+
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.SourceFile;
+import org.openrewrite.contrib.PathUtils;
+import org.openrewrite.java.internal.JavaTypeCache;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.SoftReference;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * A read-only store over an archive written by {@link LstArchiveWriter} that memory maps the archive instead of reading
+ * it. The encoded segments stay in the mapped file, outside the Java heap, and a source file is only decoded, straight
+ * from the mapped memory, the first time it is requested. Decoded source files are softly referenced, so the garbage
+ * collector can reclaim them under memory pressure, in which case they are decoded again on the next request.
+ * <p>
+ * The store is thread-safe.
+ */
+public class MappedLstStore implements Closeable {
+
+  /**
+   * A single mapping is limited to {@link Integer#MAX_VALUE} bytes, larger archives are mapped as several regions that
+   * each hold whole segments.
+   */
+  private static final long MAX_REGION_SIZE = Integer.MAX_VALUE;
+
+  private final LstSerializer serializer;
+  private final FileChannel channel;
+  private final LstArchiveFormat.Layout layout;
+  private final @Nullable JavaTypeCache typeCache;
+  private final Map<Path, Segment> segments;
+  private final Map<Path, SoftReference<SourceFile>> decoded = new ConcurrentHashMap<>();
+  private volatile @Nullable JavaTypeTable typeTable;
+
+  private MappedLstStore(LstSerializer serializer, FileChannel channel, LstArchiveFormat.Layout layout,
+                         @Nullable JavaTypeCache typeCache, Map<Path, Segment> segments) {
+    this.serializer = serializer;
+    this.channel = channel;
+    this.layout = layout;
+    this.typeCache = typeCache;
+    this.segments = segments;
+  }
+
+  public static MappedLstStore open(LstSerializer serializer, Path archive) {
+    return open(serializer, archive, null);
+  }
+
+  /**
+   * @param serializer A serializer configured with the same format the archive was written with
+   * @param archive    The archive file
+   * @param typeCache  If not null, the types of the archive are resolved through this cache before the first source file
+   *                   is decoded, so that they are shared with every other archive or parser backed by the same cache
+   */
+  public static MappedLstStore open(LstSerializer serializer, Path archive, @Nullable JavaTypeCache typeCache) {
+    FileChannel channel = null;
+    try {
+      channel = FileChannel.open(archive, StandardOpenOption.READ);
+      LstArchiveFormat.Layout layout = LstArchiveFormat.readLayout(channel, serializer.getFormat());
+
+      Map<Path, Segment> segments = new LinkedHashMap<>();
+      List<LstArchiveFormat.Entry> region = new ArrayList<>();
+      for (LstArchiveFormat.Entry entry : layout.getEntries()) {
+        if (!region.isEmpty() && entry.getOffset() + entry.getLength() - region.get(0).getOffset() > MAX_REGION_SIZE) {
+          map(channel, region, segments);
+          region.clear();
+        }
+        region.add(entry);
+      }
+      map(channel, region, segments);
+      return new MappedLstStore(serializer, channel, layout, typeCache, segments);
+    } catch (IOException | RuntimeException e) {
+      throw LstArchiveFormat.closeOnFailure(channel, e);
+    }
+  }
+
+  private static void map(FileChannel channel, List<LstArchiveFormat.Entry> region, Map<Path, Segment> segments) throws IOException {
+    if (region.isEmpty()) {
+      return;
+    }
+    long start = region.get(0).getOffset();
+    LstArchiveFormat.Entry last = region.get(region.size() - 1);
+    MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, last.getOffset() + last.getLength() - start);
+    for (LstArchiveFormat.Entry entry : region) {
+      segments.put(entry.getSourcePath(), new Segment(buffer, (int) (entry.getOffset() - start), entry.getLength(),
+          entry.getHeaderLength()));
+    }
+  }
+
+  /**
+   * @return The source paths in the store, in the order they were written
+   */
+  public Set<Path> getSourcePaths() {
+    return Collections.unmodifiableSet(segments.keySet());
+  }
+
+  public boolean contains(Path sourcePath) {
+    return segments.containsKey(sourcePath);
+  }
+
+  /**
+   * @return True if the source file is currently held in its decoded form
+   */
+  public boolean isDecoded(Path sourcePath) {
+    SoftReference<SourceFile> reference = decoded.get(sourcePath);
+    return reference != null && reference.get() != null;
+  }
+
+  /**
+   * @return The source file, decoded on first access, or null if the store does not contain the source path
+   */
+  public @Nullable SourceFile get(Path sourcePath) {
+    Segment segment = segments.get(sourcePath);
+    if (segment == null) {
+      return null;
+    }
+    SoftReference<SourceFile> reference = decoded.get(sourcePath);
+    SourceFile sourceFile = reference == null ? null : reference.get();
+    if (sourceFile == null) {
+      sourceFile = decode(segment);
+      decoded.put(sourcePath, new SoftReference<>(sourceFile));
+    }
+    return sourceFile;
+  }
+
+  /**
+   * @return The header of the source file, decoded without decoding its tree, or null if the store does not contain the
+   * source path
+   */
+  public @Nullable SourceFileHeader getHeader(Path sourcePath) {
+    Segment segment = segments.get(sourcePath);
+    return segment == null ? null : serializer.deserializeHeader(
+        input(segment, segment.offset, segment.headerLength));
+  }
+
+  /**
+   * @return A handle exposing the header of the source file, which only decodes the tree once it is requested, or null
+   * if the store does not contain the source path
+   */
+  public @Nullable LazySourceFile getLazy(Path sourcePath) {
+    SourceFileHeader header = getHeader(sourcePath);
+    return header == null ? null : new LazySourceFile(header, () -> get(sourcePath));
+  }
+
+  /**
+   * @param globPattern A glob expression matched against each source path, see {@link PathUtils#matchesGlob}
+   * @return Handles on the source files whose path matches the pattern, in the order they were written, see
+   * {@link #getLazy(Path)}
+   */
+  public List<LazySourceFile> getAllLazy(String globPattern) {
+    return segments.keySet().stream()
+        .filter(sourcePath -> PathUtils.matchesGlob(sourcePath, globPattern))
+        .map(this::getLazy)
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * @param globPattern A glob expression matched against each source path, see {@link PathUtils#matchesGlob}
+   * @return The source files whose path matches the pattern, in the order they were written
+   */
+  public List<SourceFile> getAll(String globPattern) {
+    return segments.keySet().stream()
+        .filter(sourcePath -> PathUtils.matchesGlob(sourcePath, globPattern))
+        .map(this::get)
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Drops all decoded source files, leaving only the mapped segments.
+   */
+  public void evict() {
+    decoded.clear();
+  }
+
+  private SourceFile decode(Segment segment) {
+    return serializer.deserializeSourceFile(
+        input(segment, segment.offset + segment.headerLength, segment.length - segment.headerLength), getTypeTable());
+  }
+
+  private InputStream input(Segment segment, int offset, int length) {
+    ByteBuffer buffer = segment.buffer.duplicate();
+    // Cast for Java 8 compatibility, where Buffer's position and limit are not overridden to return a ByteBuffer
+    ((Buffer) buffer).limit(offset + length);
+    ((Buffer) buffer).position(offset);
+    return LstArchiveFormat.decompress(new ByteBufferBackedInputStream(buffer), layout.getHeader().isCompressed());
+  }
+
+  /**
+   * @return The types shared by all source files in the store, decoded the first time they are needed and then kept on
+   * the heap for as long as the store is open
+   */
+  public JavaTypeTable getTypeTable() {
+    JavaTypeTable table = typeTable;
+    if (table == null) {
+      synchronized (this) {
+        table = typeTable;
+        if (table == null) {
+          try {
+            typeTable = table = LstArchiveFormat.readTypeTable(channel, layout, serializer, typeCache);
+          } catch (IOException e) {
+            throw new RuntimeException(e);
+          }
+        }
+      }
+    }
+    return table;
+  }
+
+  /**
+   * Closes the underlying file. The mapped memory itself is released once the store is no longer reachable.
+   */
+  @Override
+  public void close() {
+    decoded.clear();
+    typeTable = null;
+    try {
+      channel.close();
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static class Segment {
+    final ByteBuffer buffer;
+    final int offset;
+    final int length;
+    final int headerLength;
+
+    Segment(ByteBuffer buffer, int offset, int length, int headerLength) {
+      this.buffer = buffer;
+      this.offset = offset;
+      this.length = length;
+      this.headerLength = headerLength;
+    }
+  }
+}
@@ -0,0 +1,39 @@
+package org.openrewrite.contrib.serialization;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdScalarSerializer;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Jackson encodes a {@link Path} as a file URI, which turns the relative source path of a source file into an absolute
+ * path resolved against the working directory of whoever serialized it. This module encodes paths exactly as they are
+ * instead, while still reading the file URIs of payloads written without it.
+ */
+class RelativePathModule extends SimpleModule {
+
+  RelativePathModule() {
+    super("RelativePathModule");
+    addSerializer(Path.class, new StdScalarSerializer<Path>(Path.class) {
+      @Override
+      public void serialize(Path value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeString(value.toString());
+      }
+    });
+    addDeserializer(Path.class, new StdScalarDeserializer<Path>(Path.class) {
+      @Override
+      public Path deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        String value = p.getValueAsString();
+        return value.startsWith("file:") ? Paths.get(URI.create(value)) : Paths.get(value);
+      }
+    });
+  }
+}
@@ -0,0 +1,87 @@
+package org.openrewrite.contrib.serialization;
+
+import lombok.Value;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.Checksum;
+import org.openrewrite.SourceFile;
+import org.openrewrite.marker.Marker;
+
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * The metadata that {@link LstArchiveWriter} writes ahead of each source file's tree, which is usually all that is
+ * needed to decide whether a source file is worth decoding at all, see {@link LazySourceFile}. Headers only hold the
+ * class names of the markers and no Java types, so that they stay small and are decoded without the archive's type
+ * table.
+ */
+@Value
+public class SourceFileHeader {
+  Path sourcePath;
+
+  /**
+   * The fully qualified name of the source file's class, for instance {@code org.openrewrite.java.tree.J$CompilationUnit}.
+   */
+  String sourceFileType;
+
+  /**
+   * The name of the source file's charset.
+   */
+  @Nullable
+  String charset;
+
+  @Nullable
+  Checksum checksum;
+
+  /**
+   * The fully qualified names of the classes of the source file's markers.
+   */
+  Set<String> markerTypes;
+
+  public static SourceFileHeader of(SourceFile sourceFile) {
+    Charset charset = sourceFile.getCharset();
+    Set<String> markerTypes = new TreeSet<>();
+    for (Marker marker : sourceFile.getMarkers().getMarkers()) {
+      markerTypes.add(marker.getClass().getName());
+    }
+    return new SourceFileHeader(sourceFile.getSourcePath(), sourceFile.getClass().getName(),
+        charset == null ? null : charset.name(), sourceFile.getChecksum(), markerTypes);
+  }
+
+  /**
+   * @return True if the source file is an instance of the type, the source file's class is only loaded when it is not
+   * the type itself
+   */
+  public boolean isInstanceOf(Class<? extends SourceFile> type) {
+    return isAssignable(type, sourceFileType);
+  }
+
+  /**
+   * @return True if one of the source file's markers is an instance of the type, marker classes are only loaded when
+   * none of them is the type itself
+   */
+  public boolean hasMarker(Class<? extends Marker> type) {
+    if (markerTypes.contains(type.getName())) {
+      return true;
+    }
+    for (String markerType : markerTypes) {
+      if (isAssignable(type, markerType)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean isAssignable(Class<?> type, String className) {
+    if (type.getName().equals(className)) {
+      return true;
+    }
+    try {
+      return type.isAssignableFrom(Class.forName(className, false, type.getClassLoader()));
+    } catch (ClassNotFoundException e) {
+      return false;
+    }
+  }
+}
@@ -0,0 +1,40 @@
+package org.openrewrite.contrib.serialization;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import org.openrewrite.SourceFile;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+
+/**
+ * An iterator over serialized source files that decodes each {@link SourceFile} only when it is requested. Closing the
+ * iterator releases the underlying parser and input stream.
+ */
+public class SourceFileIterator implements Iterator<SourceFile>, Closeable {
+
+  private final MappingIterator<SourceFile> delegate;
+
+  SourceFileIterator(MappingIterator<SourceFile> delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public boolean hasNext() {
+    return delegate.hasNext();
+  }
+
+  @Override
+  public SourceFile next() {
+    return delegate.next();
+  }
+
+  @Override
+  public void close() {
+    try {
+      delegate.getParser().close();
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+}
@@ -0,0 +1,130 @@
+package org.openrewrite.contrib.serialization;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded, thread-safe pool that lets equal strings decoded by {@link LstSerializer} share one instance, see
+ * {@link LstSerializer#withStringInterner(StringInterner)}. Deserialized trees repeat the same whitespace, identifiers,
+ * package names and fully qualified type names over and over, and without interning each occurrence is a separate
+ * instance on the heap.
+ * <p>
+ * The pool is a direct-mapped table: each string has exactly one slot, picked from its hash, and a string that maps to
+ * an occupied slot replaces the one held there. Memory use is therefore fixed, lookups never lock, and frequently
+ * decoded strings naturally stay in the table. One pool can be shared by any number of serializers and threads, so that
+ * source files decoded separately still share their strings.
+ */
+public class StringInterner {
+
+  public static final int DEFAULT_CAPACITY = 1 << 16;
+
+  /**
+   * Longer strings (comments, text blocks, large literals) rarely repeat and would only pin memory in the table.
+   */
+  public static final int DEFAULT_MAX_LENGTH = 256;
+
+  /**
+   * Approximate size of a {@link String} and its backing array without any character, on a 64-bit JVM with compressed
+   * references.
+   */
+  private static final int STRING_OVERHEAD = 40;
+
+  private final AtomicReferenceArray<String> table;
+  private final int mask;
+  private final int maxLength;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder bytesSaved = new LongAdder();
+
+  public StringInterner() {
+    this(DEFAULT_CAPACITY, DEFAULT_MAX_LENGTH);
+  }
+
+  /**
+   * @param capacity  The number of slots in the table, rounded up to a power of two
+   * @param maxLength Strings longer than this are never interned
+   */
+  public StringInterner(int capacity, int maxLength) {
+    if (capacity <= 0 || capacity > 1 << 30) {
+      throw new IllegalArgumentException("The capacity must be between 1 and 2^30 but was " + capacity);
+    }
+    int size = Integer.highestOneBit(capacity);
+    if (size < capacity) {
+      size <<= 1;
+    }
+    this.table = new AtomicReferenceArray<>(size);
+    this.mask = size - 1;
+    this.maxLength = maxLength;
+  }
+
+  /**
+   * @return The pooled instance equal to the value if there is one, otherwise the value itself, which is pooled
+   */
+  public String intern(String value) {
+    if (value.length() > maxLength) {
+      return value;
+    }
+    int hash = value.hashCode();
+    int slot = (hash ^ (hash >>> 16)) & mask;
+    String pooled = table.get(slot);
+    if (pooled != null && pooled.equals(value)) {
+      if (pooled != value) {
+        hits.increment();
+        bytesSaved.add(STRING_OVERHEAD + value.length());
+      }
+      return pooled;
+    }
+    table.set(slot, value);
+    return value;
+  }
+
+  /**
+   * Interns {@code value.substring(start, end)} without allocating the substring when an equal string is pooled, for
+   * callers that tokenize a larger string in place.
+   *
+   * @return The pooled instance equal to the range if there is one, otherwise the substring, which is pooled
+   */
+  public String intern(String value, int start, int end) {
+    int length = end - start;
+    if (length > maxLength) {
+      return value.substring(start, end);
+    }
+    // The same hash as String#hashCode, so that a range and an equal string map to the same slot
+    int hash = 0;
+    for (int i = start; i < end; i++) {
+      hash = 31 * hash + value.charAt(i);
+    }
+    int slot = (hash ^ (hash >>> 16)) & mask;
+    String pooled = table.get(slot);
+    if (pooled != null && pooled.length() == length && pooled.regionMatches(0, value, start, length)) {
+      if (pooled != value) {
+        hits.increment();
+        bytesSaved.add(STRING_OVERHEAD + length);
+      }
+      return pooled;
+    }
+    String substring = value.substring(start, end);
+    table.set(slot, substring);
+    return substring;
+  }
+
+  /**
+   * @return How many decoded strings were replaced by a pooled instance
+   */
+  public long getHits() {
+    return hits.sum();
+  }
+
+  /**
+   * @return An estimate of the heap no longer retained thanks to interning, counting one byte per character as Java 9+
+   * compact strings do for the ASCII text that makes up most of a source file
+   */
+  public long getBytesSaved() {
+    return bytesSaved.sum();
+  }
+
+  public void clear() {
+    for (int i = 0; i < table.length(); i++) {
+      table.set(i, null);
+    }
+  }
+}
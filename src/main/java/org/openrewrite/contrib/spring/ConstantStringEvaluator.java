@@ -0,0 +1,119 @@
+package org.openrewrite.contrib.spring;
+
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.java.JavaIsoVisitor;
+import org.openrewrite.java.tree.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Evaluates the expression of an annotation argument to the string constant it denotes, without printing it. String
+ * literals, {@code +} concatenations, parentheses and references to {@code static final} string constants are folded.
+ * Constants are resolved from the declarations in the same source file, which are collected the first time a constant is
+ * referenced.
+ */
+class ConstantStringEvaluator {
+
+  /**
+   * Stands for the operands that {@link #evaluatePartially(Expression)} cannot resolve, it cannot appear in a property
+   * name or in the {@code ${}, {@code }} and {@code :} delimiters of a placeholder.
+   */
+  static final char UNRESOLVED = '\u0000';
+
+  private static final int MAX_DEPTH = 64;
+
+  private final JavaSourceFile sourceFile;
+  private @Nullable Map<String, Expression> constants;
+
+  ConstantStringEvaluator(JavaSourceFile sourceFile) {
+    this.sourceFile = sourceFile;
+  }
+
+  JavaSourceFile getSourceFile() {
+    return sourceFile;
+  }
+
+  /**
+   * @return The value of the expression, or null if it is not a string constant declared in the source file
+   */
+  @Nullable
+  String evaluate(Expression expression) {
+    return evaluate(expression, 0, false);
+  }
+
+  /**
+   * @return The value of the expression, with {@link #UNRESOLVED} in place of each operand that is not a string constant
+   * declared in the source file, so that the parts of a concatenation that are known are still folded
+   */
+  @SuppressWarnings("DataFlowIssue")
+  String evaluatePartially(Expression expression) {
+    return evaluate(expression, 0, true);
+  }
+
+  private @Nullable String evaluate(Expression expression, int depth, boolean partially) {
+    String value = fold(expression, depth, partially);
+    return value == null && partially ? String.valueOf(UNRESOLVED) : value;
+  }
+
+  private @Nullable String fold(Expression expression, int depth, boolean partially) {
+    if (depth > MAX_DEPTH) {
+      return null;
+    } else if (expression instanceof J.Literal) {
+      Object value = ((J.Literal) expression).getValue();
+      return value instanceof String ? (String) value : null;
+    } else if (expression instanceof J.Parentheses) {
+      J tree = ((J.Parentheses<?>) expression).getTree();
+      return tree instanceof Expression ? evaluate((Expression) tree, depth + 1, partially) : null;
+    } else if (expression instanceof J.Binary) {
+      J.Binary binary = (J.Binary) expression;
+      if (binary.getOperator() != J.Binary.Type.Addition) {
+        return null;
+      }
+      String left = evaluate(binary.getLeft(), depth + 1, partially);
+      String right = left == null ? null : evaluate(binary.getRight(), depth + 1, partially);
+      return right == null ? null : left + right;
+    }
+
+    JavaType.Variable variable = null;
+    if (expression instanceof J.Identifier) {
+      variable = ((J.Identifier) expression).getFieldType();
+    } else if (expression instanceof J.FieldAccess) {
+      variable = ((J.FieldAccess) expression).getName().getFieldType();
+    }
+    String key = constantKey(variable);
+    if (key == null) {
+      return null;
+    }
+    Expression initializer = constants().get(key);
+    return initializer == null ? null : evaluate(initializer, depth + 1, partially);
+  }
+
+  private Map<String, Expression> constants() {
+    if (constants == null) {
+      constants = new JavaIsoVisitor<Map<String, Expression>>() {
+        @Override
+        public J.VariableDeclarations.NamedVariable visitVariable(J.VariableDeclarations.NamedVariable variable,
+                                                                  Map<String, Expression> constants) {
+          String key = constantKey(variable.getVariableType());
+          if (key != null && variable.getInitializer() != null) {
+            constants.put(key, variable.getInitializer());
+          }
+          return super.visitVariable(variable, constants);
+        }
+      }.reduce(sourceFile, new HashMap<>());
+    }
+    return constants;
+  }
+
+  /**
+   * @return The owning type and name of a static final field, or null if the variable is not one
+   */
+  private static @Nullable String constantKey(JavaType.@Nullable Variable variable) {
+    if (variable == null || !variable.hasFlags(Flag.Static, Flag.Final)) {
+      return null;
+    }
+    JavaType.FullyQualified owner = TypeUtils.asFullyQualified(variable.getOwner());
+    return owner == null ? null : owner.getFullyQualifiedName() + '#' + variable.getName();
+  }
+}
@@ -1,6 +1,8 @@
 package org.openrewrite.contrib.spring;
 
 import org.openrewrite.contrib.spring.table.SpringBootPropertyReport;
+import org.openrewrite.contrib.spring.table.SpringBootPropertySummary;
+import com.fasterxml.jackson.annotation.JsonCreator;
 import lombok.EqualsAndHashCode;
 import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
@@ -8,15 +10,19 @@ import org.jspecify.annotations.Nullable;
 import org.openrewrite.*;
 import org.openrewrite.internal.PropertyPlaceholderHelper;
 import org.openrewrite.java.JavaIsoVisitor;
+import org.openrewrite.java.search.UsesType;
 import org.openrewrite.java.tree.Expression;
 import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaSourceFile;
 import org.openrewrite.java.tree.TypeUtils;
 import org.openrewrite.marker.SearchResult;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.stream.Collectors;
 
 import static org.openrewrite.contrib.spring.table.SpringBootPropertyReport.Row;
@@ -25,16 +31,39 @@ import static org.openrewrite.contrib.spring.table.SpringBootPropertyReport.Type
 @Slf4j
 @Value
 @EqualsAndHashCode(callSuper = false)
-public class FindInlineSpringBootProperties extends Recipe {
+public class FindInlineSpringBootProperties extends ScanningRecipe<PropertyReferenceAggregator> {
+
+  private static final String VALUE_ANNOTATION = "org.springframework.beans.factory.annotation.Value";
+  private static final String CONDITIONAL_ON_PROPERTY_ANNOTATION = "org.springframework.boot.autoconfigure.condition.ConditionalOnProperty";
 
   transient SpringBootPropertyReport report = new SpringBootPropertyReport(this);
 
+  transient SpringBootPropertySummary summary = new SpringBootPropertySummary(this);
+
   @Option(displayName = "Mark annotations in source files",
           description = "A flag to indicate if the recipe should also mark the annotations that contain the properties.",
           required = false)
   @Nullable
   Boolean markAnnotations;
 
+  @Option(displayName = "Aggregate the report",
+          description = "A flag to report one row per property, with the number of references and a sample of the files " +
+                        "referencing it, instead of one row per reference. Use it on large codebases where the same " +
+                        "properties are referenced in many places.",
+          required = false)
+  @Nullable
+  Boolean aggregate;
+
+  public FindInlineSpringBootProperties(@Nullable Boolean markAnnotations) {
+    this(markAnnotations, null);
+  }
+
+  @JsonCreator
+  public FindInlineSpringBootProperties(@Nullable Boolean markAnnotations, @Nullable Boolean aggregate) {
+    this.markAnnotations = markAnnotations;
+    this.aggregate = aggregate;
+  }
+
   @Override
   public String getDisplayName() {
     return "Search for references to spring boot properties that are inlined in code";
@@ -46,38 +75,80 @@ public class FindInlineSpringBootProperties extends Recipe {
   }
 
   @Override
-  public TreeVisitor<?, ExecutionContext> getVisitor() {
-    return new JavaIsoVisitor<ExecutionContext>() {
+  public PropertyReferenceAggregator getInitialValue(ExecutionContext ctx) {
+    return new PropertyReferenceAggregator();
+  }
+
+  @Override
+  public TreeVisitor<?, ExecutionContext> getScanner(PropertyReferenceAggregator acc) {
+    if (!aggregate()) {
+      return TreeVisitor.noop();
+    }
+    return findProperties((property, type, sourcePath, ctx) -> acc.add(property, type, sourcePath));
+  }
+
+  @Override
+  public Collection<? extends SourceFile> generate(PropertyReferenceAggregator acc, ExecutionContext ctx) {
+    if (aggregate()) {
+      acc.forEach(properties -> summary.insertRow(ctx, new SpringBootPropertySummary.Row(
+          properties.getPropertyName(),
+          properties.getType(),
+          properties.getReferences(),
+          String.join(", ", properties.getSampleSources()))));
+    }
+    return Collections.emptyList();
+  }
+
+  @Override
+  public TreeVisitor<?, ExecutionContext> getVisitor(PropertyReferenceAggregator acc) {
+    if (aggregate()) {
+      // The references were aggregated by the scanner, the visitor only marks the annotations, at least those the
+      // properties could not be extracted from
+      return findProperties((property, type, sourcePath, ctx) -> {
+      });
+    }
+    return findProperties((property, type, sourcePath, ctx) -> report.insertRow(ctx, new Row(property, type, sourcePath)));
+  }
+
+  private TreeVisitor<?, ExecutionContext> findProperties(PropertyReferenceConsumer consumer) {
+    // Only the files using one of the annotations are visited
+    return Preconditions.check(Preconditions.or(
+        new UsesType<>(VALUE_ANNOTATION, false),
+        new UsesType<>(CONDITIONAL_ON_PROPERTY_ANNOTATION, false)
+    ), new JavaIsoVisitor<ExecutionContext>() {
+
+      @Nullable
+      ConstantStringEvaluator evaluator;
 
       @Override
       @SuppressWarnings("DataFlowIssue")
       public J.Annotation visitAnnotation(J.Annotation annotation, ExecutionContext executionContext) {
 
-        if (TypeUtils.isOfClassType(annotation.getType(), "org.springframework.beans.factory.annotation.Value")) {
-          // Extract any properties from the @Value annotation and record them in the data table along with the source
-          // file where the value annotation is found.
-          Set<String> properties = extractPropertiesFromValueAnnotation(annotation);
+        if (TypeUtils.isOfClassType(annotation.getType(), VALUE_ANNOTATION)) {
+          // Extract any properties from the @Value annotation and record them along with the source file where the
+          // value annotation is found.
+          Set<String> properties = extractPropertiesFromValueAnnotation(annotation, evaluator());
           if (properties.isEmpty()) {
             return SearchResult.found(annotation, "Annotation found but could not extract property.");
           }
           String sourcePath = getSourcePath();
           for (String property : properties) {
-            report.insertRow(executionContext, new Row(property, Type.VALUE, sourcePath));
+            consumer.accept(property, Type.VALUE, sourcePath, executionContext);
           }
           if (markAnnotations()) {
             return SearchResult.found(annotation);
           }
-        } else if (TypeUtils.isOfClassType(annotation.getType(), "org.springframework.boot.autoconfigure.condition.ConditionalOnProperty")) {
-          // Extract any properties from the @ConditionalOnProperty annotation and record them in the data table along with the source
+        } else if (TypeUtils.isOfClassType(annotation.getType(), CONDITIONAL_ON_PROPERTY_ANNOTATION)) {
+          // Extract any properties from the @ConditionalOnProperty annotation and record them along with the source
           // file where the value annotation is found.
-          Set<String> properties = extractPropertiesFromConditionalAnnotation(annotation);
+          Set<String> properties = extractPropertiesFromConditionalAnnotation(annotation, evaluator());
           if (properties.isEmpty()) {
             return SearchResult.found(annotation, "Annotation found but could not extract property.");
           }
 
           String sourcePath = getSourcePath();
           for (String property : properties) {
-            report.insertRow(executionContext, new SpringBootPropertyReport.Row(property, Type.CONDITIONAL, sourcePath));
+            consumer.accept(property, Type.CONDITIONAL, sourcePath, executionContext);
           }
           if (markAnnotations()) {
             return SearchResult.found(annotation);
@@ -86,67 +157,117 @@ public class FindInlineSpringBootProperties extends Recipe {
         return super.visitAnnotation(annotation, executionContext);
       }
 
+      private ConstantStringEvaluator evaluator() {
+        JavaSourceFile sourceFile = getCursor().firstEnclosingOrThrow(JavaSourceFile.class);
+        if (evaluator == null || evaluator.getSourceFile() != sourceFile) {
+          evaluator = new ConstantStringEvaluator(sourceFile);
+        }
+        return evaluator;
+      }
+
       private String getSourcePath() {
         SourceFile sourceFile = getCursor().firstEnclosing(SourceFile.class);
         return sourceFile == null ? "" : sourceFile.getSourcePath().toString();
       }
 
-    };
+    });
   }
 
   private boolean markAnnotations() {
     return markAnnotations != null && markAnnotations;
   }
 
+  private boolean aggregate() {
+    return aggregate != null && aggregate;
+  }
+
+  private interface PropertyReferenceConsumer {
+    void accept(String property, Type type, String sourcePath, ExecutionContext ctx);
+  }
+
   static PropertyPlaceholderHelper placeholderHelper = new PropertyPlaceholderHelper("${", "}", ":");
 
+  private static final int PLACEHOLDER_CACHE_SIZE = 1 << 10;
+
+  /**
+   * The properties parsed from recent @Value expressions, direct-mapped by expression, as the same expressions are
+   * repeated across many classes.
+   */
+  private static final AtomicReferenceArray<ParsedExpression> placeholderCache =
+      new AtomicReferenceArray<>(PLACEHOLDER_CACHE_SIZE);
+
   /**
    * Given an AST that represents the @Value annotation, extract the properties that are inlined in the expression.
-   * This method leverages the {@link PropertyPlaceholderHelper} to parse and extract one or more properties from the
-   * expression.
+   * The argument is evaluated to a constant string, folding literals, concatenations and constants declared in the
+   * same source file, and this method leverages the {@link PropertyPlaceholderHelper} to parse and extract one or more
+   * properties from it. Operands that cannot be folded, such as constants declared in other source files, are left out
+   * along with the properties whose name depends on them.
    *
    * @param annotation The AST that represents the @Value annotation
+   * @param evaluator  The evaluator of constant expressions in the source file of the annotation
    * @return A set of properties that are inlined in the expression or an empty set if no properties are found
    */
-  static Set<String> extractPropertiesFromValueAnnotation(J.Annotation annotation) {
+  static Set<String> extractPropertiesFromValueAnnotation(J.Annotation annotation, ConstantStringEvaluator evaluator) {
     if (annotation.getArguments() != null && !annotation.getArguments().isEmpty()) {
-      String expression = annotation.getArguments().get(0).toString();
-      Set<String> properties = new HashSet<>();
-      placeholderHelper.replacePlaceholders(expression, name -> {
-        if (!name.contains("${")) {
-          properties.add(name);
-        }
-        return null;
-      });
-      return properties;
+      Expression argument = annotation.getArguments().get(0);
+      if (argument instanceof J.Assignment && ((J.Assignment) argument).getVariable() instanceof J.Identifier &&
+          "value".equals(((J.Identifier) ((J.Assignment) argument).getVariable()).getSimpleName())) {
+        argument = ((J.Assignment) argument).getAssignment();
+      }
+      return parsePlaceholders(evaluator.evaluatePartially(argument));
     } else {
       return Collections.emptySet();
     }
   }
 
+  /**
+   * @return The properties referenced by the placeholders of the expression, excluding nested placeholders and names
+   * holding an unresolved operand, see {@link ConstantStringEvaluator#evaluatePartially(Expression)}
+   */
+  static Set<String> parsePlaceholders(String expression) {
+    int hash = expression.hashCode();
+    int slot = (hash ^ (hash >>> 16)) & (PLACEHOLDER_CACHE_SIZE - 1);
+    ParsedExpression cached = placeholderCache.get(slot);
+    if (cached != null && cached.expression.equals(expression)) {
+      return cached.properties;
+    }
+    Set<String> properties = new HashSet<>();
+    placeholderHelper.replacePlaceholders(expression, name -> {
+      if (!name.contains("${") && name.indexOf(ConstantStringEvaluator.UNRESOLVED) < 0) {
+        properties.add(name);
+      }
+      return null;
+    });
+    Set<String> unmodifiable = Collections.unmodifiableSet(properties);
+    placeholderCache.set(slot, new ParsedExpression(expression, unmodifiable));
+    return unmodifiable;
+  }
+
   /**
    * Given an AST that represents the @ConditionalOnProperty annotation, extract the properties that are inlined in the
    * expression. This method will handle both case where the property is inlined as a literal or when the annotation
    * has a `name` and `prefix` attribute. The name attribute is an array and can result in multiple properties.
    *
    * @param annotation The AST that represents the @ConditionalOnProperty annotation
+   * @param evaluator  The evaluator of constant expressions in the source file of the annotation
    * @return A set of properties that are inlined in the expression or an empty set if no properties are found
    */
-  private static Set<String> extractPropertiesFromConditionalAnnotation(J.Annotation annotation) {
+  private static Set<String> extractPropertiesFromConditionalAnnotation(J.Annotation annotation,
+                                                                        ConstantStringEvaluator evaluator) {
     String prefix = "";
     Set<String> properties = Collections.emptySet();
     if (annotation.getArguments() != null) {
       for (Expression expression : annotation.getArguments()) {
-        if (expression instanceof J.Literal) {
-          properties = extractValuesFromExpression(expression);
-        } else if (expression instanceof J.Assignment) {
+        if (!(expression instanceof J.Assignment)) {
+          properties = extractValuesFromExpression(expression, evaluator);
+        } else {
           J.Assignment argument = (J.Assignment) expression;
           String name = argument.getVariable().toString();
           if ("prefix".equals(name)) {
-            Set<String> values = extractValuesFromExpression(argument.getAssignment());
+            Set<String> values = extractValuesFromExpression(argument.getAssignment(), evaluator);
             prefix = values.isEmpty() ? "" : values.iterator().next();
           } else if ("name".equals(name)) {
-            properties = extractValuesFromExpression(argument.getAssignment());
+            properties = extractValuesFromExpression(argument.getAssignment(), evaluator);
           }
         }
       }
@@ -159,37 +280,31 @@ public class FindInlineSpringBootProperties extends Recipe {
     }
   }
 
-  private static Set<String> extractValuesFromExpression(Expression expression) {
-    if (expression instanceof J.Literal) {
-      String value = getStringFromLiteral((J.Literal) expression);
-      if (value != null) {
-        return Collections.singleton(value);
-      }
-    } else if (expression instanceof J.NewArray) {
+  private static Set<String> extractValuesFromExpression(Expression expression, ConstantStringEvaluator evaluator) {
+    if (expression instanceof J.NewArray) {
       J.NewArray newArray = (J.NewArray) expression;
       if (newArray.getInitializer() != null) {
         return newArray.getInitializer().stream()
-            .map(e -> {
-              if (e instanceof J.Literal) {
-                J.Literal literal = (J.Literal) e;
-                if (literal.getValue() != null) {
-                  return (String) literal.getValue();
-                } else {
-                  return "";
-                }
-              } else {
-                return null;
-              }
-            })
+            .map(evaluator::evaluate)
             .filter(Objects::nonNull)
             .collect(Collectors.toSet());
       }
+    } else {
+      String value = evaluator.evaluate(expression);
+      if (value != null) {
+        return Collections.singleton(value);
+      }
     }
     return Collections.emptySet();
   }
 
-  @Nullable
-  static String getStringFromLiteral(J.Literal literal) {
-    return (String) literal.getValue();
+  private static class ParsedExpression {
+    final String expression;
+    final Set<String> properties;
+
+    ParsedExpression(String expression, Set<String> properties) {
+      this.expression = expression;
+      this.properties = properties;
+    }
   }
 }
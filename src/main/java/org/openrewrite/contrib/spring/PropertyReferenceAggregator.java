@@ -0,0 +1,334 @@
+package org.openrewrite.contrib.spring;
+
+import lombok.Value;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.contrib.spring.table.SpringBootPropertyReport.Type;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Aggregates the references to Spring properties by property and type, counting them and keeping a bounded sample of
+ * the source paths they are found in, so that its memory grows with the number of distinct properties rather than the
+ * number of references.
+ * <p>
+ * Once more than {@code maxPropertiesInMemory} distinct properties are held, they are spilled to a temporary file sorted
+ * by property and type, and {@link #forEach(Consumer)} merges the spilled runs with the properties still in memory.
+ * References can be added concurrently.
+ */
+public class PropertyReferenceAggregator {
+
+  public static final int DEFAULT_MAX_PROPERTIES_IN_MEMORY = 100_000;
+  public static final int DEFAULT_SAMPLE_SIZE = 10;
+
+  private static final int MAX_RUNS = 64;
+
+  private static final Comparator<PropertyReferences> ORDER = Comparator
+      .comparing(PropertyReferences::getPropertyName)
+      .thenComparing(PropertyReferences::getType);
+
+  private final int maxPropertiesInMemory;
+  private final int sampleSize;
+  private final Path spillDirectory;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final Map<Key, Aggregate> aggregates = new ConcurrentHashMap<>();
+  private final List<Path> runs = new ArrayList<>();
+
+  public PropertyReferenceAggregator() {
+    this(DEFAULT_MAX_PROPERTIES_IN_MEMORY, DEFAULT_SAMPLE_SIZE, Paths.get(System.getProperty("java.io.tmpdir")));
+  }
+
+  /**
+   * @param maxPropertiesInMemory The number of distinct properties held before they are spilled to disk
+   * @param sampleSize            The number of source paths kept for each property
+   * @param spillDirectory        The directory of the temporary files
+   */
+  public PropertyReferenceAggregator(int maxPropertiesInMemory, int sampleSize, Path spillDirectory) {
+    if (maxPropertiesInMemory <= 0) {
+      throw new IllegalArgumentException("The maximum number of properties in memory must be positive but was " +
+                                         maxPropertiesInMemory);
+    }
+    if (sampleSize < 0) {
+      throw new IllegalArgumentException("The sample size must not be negative but was " + sampleSize);
+    }
+    this.maxPropertiesInMemory = maxPropertiesInMemory;
+    this.sampleSize = sampleSize;
+    this.spillDirectory = spillDirectory;
+  }
+
+  public void add(String propertyName, Type type, String sourcePath) {
+    lock.readLock().lock();
+    try {
+      aggregates.compute(new Key(propertyName, type), (key, aggregate) -> {
+        if (aggregate == null) {
+          aggregate = new Aggregate();
+        }
+        aggregate.add(sourcePath, sampleSize);
+        return aggregate;
+      });
+    } finally {
+      lock.readLock().unlock();
+    }
+    if (aggregates.size() > maxPropertiesInMemory) {
+      spill();
+    }
+  }
+
+  /**
+   * Calls the consumer with the references of each property, sorted by property and type, and deletes the spilled
+   * runs, after which the aggregator is empty. It must not be called while references are added.
+   */
+  public void forEach(Consumer<PropertyReferences> consumer) {
+    lock.writeLock().lock();
+    try {
+      List<PropertyReferences> inMemory = sortedInMemory();
+      aggregates.clear();
+      merge(inMemory.iterator(), consumer::accept);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void spill() {
+    lock.writeLock().lock();
+    try {
+      if (aggregates.size() <= maxPropertiesInMemory) {
+        // Another thread spilled them first
+        return;
+      }
+      Path run = Files.createTempFile(spillDirectory, "property-references", ".run");
+      runs.add(run);
+      try (RunWriter writer = new RunWriter(run)) {
+        for (PropertyReferences references : sortedInMemory()) {
+          writer.write(references);
+        }
+      }
+      aggregates.clear();
+      if (runs.size() >= MAX_RUNS) {
+        // Merge the runs into one, so that the number of open files stays bounded when they are read
+        Path merged = Files.createTempFile(spillDirectory, "property-references", ".run");
+        try (RunWriter writer = new RunWriter(merged)) {
+          merge(Collections.emptyIterator(), writer::write);
+        }
+        runs.add(merged);
+      }
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Merges the spilled runs with the sorted references held in memory, combining the references to the same property,
+   * and deletes the spilled runs.
+   */
+  private void merge(Iterator<PropertyReferences> inMemory, MergeConsumer consumer) throws IOException {
+    List<RunCursor> cursors = new ArrayList<>(runs.size() + 1);
+    try {
+      for (Path run : runs) {
+        cursors.add(new RunCursor(run));
+      }
+      cursors.add(new RunCursor(inMemory));
+
+      PriorityQueue<RunCursor> queue = new PriorityQueue<>((c1, c2) -> ORDER.compare(c1.current, c2.current));
+      for (RunCursor cursor : cursors) {
+        if (cursor.advance()) {
+          queue.add(cursor);
+        }
+      }
+      while (!queue.isEmpty()) {
+        RunCursor cursor = queue.poll();
+        PropertyReferences merged = cursor.current;
+        if (cursor.advance()) {
+          queue.add(cursor);
+        }
+        while (!queue.isEmpty() && ORDER.compare(queue.peek().current, merged) == 0) {
+          RunCursor next = queue.poll();
+          merged = merge(merged, next.current);
+          if (next.advance()) {
+            queue.add(next);
+          }
+        }
+        consumer.accept(merged);
+      }
+    } finally {
+      for (RunCursor cursor : cursors) {
+        cursor.close();
+      }
+      for (Path run : runs) {
+        Files.deleteIfExists(run);
+      }
+      runs.clear();
+    }
+  }
+
+  private List<PropertyReferences> sortedInMemory() {
+    List<PropertyReferences> sorted = new ArrayList<>(aggregates.size());
+    for (Map.Entry<Key, Aggregate> entry : aggregates.entrySet()) {
+      sorted.add(new PropertyReferences(entry.getKey().propertyName, entry.getKey().type, entry.getValue().references,
+          new ArrayList<>(entry.getValue().sampleSources)));
+    }
+    sorted.sort(ORDER);
+    return sorted;
+  }
+
+  /**
+   * @return The references of a property from two runs, with the sample of the first source paths of both
+   */
+  private PropertyReferences merge(PropertyReferences references, PropertyReferences other) {
+    TreeSet<String> sampleSources = new TreeSet<>(references.getSampleSources());
+    sampleSources.addAll(other.getSampleSources());
+    while (sampleSources.size() > sampleSize) {
+      sampleSources.pollLast();
+    }
+    return new PropertyReferences(references.getPropertyName(), references.getType(),
+        references.getReferences() + other.getReferences(), new ArrayList<>(sampleSources));
+  }
+
+  /**
+   * The references to a property of one type.
+   */
+  @Value
+  public static class PropertyReferences {
+    String propertyName;
+    Type type;
+    long references;
+
+    /**
+     * The first source paths the property is referenced in, in alphabetical order.
+     */
+    List<String> sampleSources;
+  }
+
+  @Value
+  private static class Key {
+    String propertyName;
+    Type type;
+  }
+
+  private static class Aggregate {
+    long references;
+    final TreeSet<String> sampleSources = new TreeSet<>();
+
+    /**
+     * Only called while holding the lock of the aggregate's entry.
+     */
+    void add(String sourcePath, int sampleSize) {
+      references++;
+      if (sampleSources.size() < sampleSize || (sampleSize > 0 && sourcePath.compareTo(sampleSources.last()) < 0)) {
+        sampleSources.add(sourcePath);
+        if (sampleSources.size() > sampleSize) {
+          sampleSources.pollLast();
+        }
+      }
+    }
+  }
+
+  private interface MergeConsumer {
+    void accept(PropertyReferences references) throws IOException;
+  }
+
+  /**
+   * Writes the references of a spilled run, each one preceded by a flag that is false at the end of the run.
+   */
+  private static class RunWriter implements Closeable {
+    private final DataOutputStream output;
+
+    RunWriter(Path run) throws IOException {
+      this.output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run)));
+    }
+
+    void write(PropertyReferences references) throws IOException {
+      output.writeBoolean(true);
+      writeString(references.getPropertyName());
+      output.writeByte(references.getType().ordinal());
+      output.writeLong(references.getReferences());
+      output.writeInt(references.getSampleSources().size());
+      for (String sourcePath : references.getSampleSources()) {
+        writeString(sourcePath);
+      }
+    }
+
+    /**
+     * Writes the length of the UTF-8 encoding followed by the bytes, {@link DataOutputStream#writeUTF} is limited to
+     * 64 KB.
+     */
+    private void writeString(String value) throws IOException {
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      output.writeInt(bytes.length);
+      output.write(bytes);
+    }
+
+    @Override
+    public void close() throws IOException {
+      output.writeBoolean(false);
+      output.close();
+    }
+  }
+
+  /**
+   * Reads the references of a spilled run, or of the properties held in memory, one property at a time.
+   */
+  private static class RunCursor implements Closeable {
+    private final @Nullable DataInputStream input;
+    private final Iterator<PropertyReferences> inMemory;
+    PropertyReferences current;
+
+    RunCursor(Path run) throws IOException {
+      this.input = new DataInputStream(new BufferedInputStream(Files.newInputStream(run)));
+      this.inMemory = Collections.emptyIterator();
+    }
+
+    RunCursor(Iterator<PropertyReferences> inMemory) {
+      this.input = null;
+      this.inMemory = inMemory;
+    }
+
+    boolean advance() throws IOException {
+      if (input == null) {
+        if (!inMemory.hasNext()) {
+          return false;
+        }
+        current = inMemory.next();
+        return true;
+      }
+      if (!input.readBoolean()) {
+        return false;
+      }
+      String propertyName = readString(input);
+      Type type = Type.values()[input.readByte()];
+      long references = input.readLong();
+      int sampleCount = input.readInt();
+      List<String> sampleSources = new ArrayList<>(sampleCount);
+      for (int i = 0; i < sampleCount; i++) {
+        sampleSources.add(readString(input));
+      }
+      current = new PropertyReferences(propertyName, type, references, sampleSources);
+      return true;
+    }
+
+    private static String readString(DataInputStream input) throws IOException {
+      byte[] bytes = new byte[input.readInt()];
+      input.readFully(bytes);
+      return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (input != null) {
+        input.close();
+      }
+    }
+  }
+}
@@ -0,0 +1,34 @@
+package org.openrewrite.contrib.spring.table;
+
+import lombok.Value;
+import org.openrewrite.Column;
+import org.openrewrite.DataTable;
+import org.openrewrite.Recipe;
+
+public class SpringBootPropertySummary extends DataTable<SpringBootPropertySummary.Row> {
+
+    public SpringBootPropertySummary(Recipe recipe) {
+        super(recipe,
+                "Spring property summary",
+                "Records each spring property referenced in code once, with the number of references.");
+    }
+
+    @Value
+    public static class Row {
+        @Column(displayName = "Property name",
+                description = "Name of the Spring property.")
+        String propertyName;
+
+        @Column(displayName = "Type",
+                description = "Is the property a value or conditional property.")
+        SpringBootPropertyReport.Type type;
+
+        @Column(displayName = "References",
+                description = "The number of times the property is referenced in the codebase.")
+        long references;
+
+        @Column(displayName = "Sample property references",
+                description = "The first few files, in alphabetical order, where the property is referenced.")
+        String sampleSources;
+    }
+}
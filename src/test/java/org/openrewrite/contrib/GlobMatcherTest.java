@@ -0,0 +1,52 @@
+package org.openrewrite.contrib;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GlobMatcherTest {
+
+    private static final List<Path> PATHS = List.of(
+      Paths.get("application.properties"),
+      Paths.get("src/main/resources/application.properties"),
+      Paths.get("module/src/main/resources/config/application-dev.properties"),
+      Paths.get("src/test/resources/application.yml"),
+      Paths.get("/absolute/src/main/resources/a.properties"),
+      Paths.get("a.b/c")
+    );
+
+    @Test
+    void matchLikeMatchesGlob() {
+        for (String pattern : List.of("**", "*.properties", "**/*.properties", "src/**", "**/resources/*.properties",
+          "src/main/resources/application.properties", "**/config/application-?ev.properties", "**/src/**/*.yml",
+          "a.b/*", "**/{main,test}/**", "!(**/test/**)", "src/", "/absolute/**", "src\\main\\**")) {
+            GlobMatcher matcher = PathUtils.compileGlob(pattern);
+            for (Path path : PATHS) {
+                assertThat(matcher.matches(path))
+                  .as("%s matches %s", pattern, path)
+                  .isEqualTo(PathUtils.matchesGlob(path, pattern))
+                  .isEqualTo(matcher.matches(path));
+            }
+        }
+    }
+
+    @Test
+    void includeAndExclude() {
+        GlobMatcher matcher = GlobMatcher.of(
+          List.of("**/*.properties", "**/*.yml"),
+          List.of("**/test/**", "**/config/*")
+        );
+
+        assertThat(PATHS).filteredOn(matcher).containsExactly(
+          Paths.get("application.properties"),
+          Paths.get("src/main/resources/application.properties"),
+          Paths.get("/absolute/src/main/resources/a.properties")
+        );
+        assertThat(matcher.matches(null)).isFalse();
+        assertThat(PathUtils.compileGlob("**").matches(null)).isTrue();
+    }
+}
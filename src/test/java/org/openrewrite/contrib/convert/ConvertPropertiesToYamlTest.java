@@ -1,9 +1,19 @@
 package org.openrewrite.contrib.convert;
 
 import org.junit.jupiter.api.Test;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.SourceFile;
+import org.openrewrite.properties.PropertiesParser;
 import org.openrewrite.test.RecipeSpec;
 import org.openrewrite.test.RewriteTest;
 
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.openrewrite.properties.Assertions.properties;
 import static org.openrewrite.yaml.Assertions.yaml;
 
@@ -80,4 +90,49 @@ class ConvertPropertiesToYamlTest implements RewriteTest {
         );
     }
 
-}
\ No newline at end of file
+    @Test
+    void parallelScanGeneratesSameFilesAsSequentialScan() {
+        ConvertPropertiesToYaml recipe = new ConvertPropertiesToYaml(null, true, null);
+        List<SourceFile> sourceFiles = IntStream.range(0, 200)
+          .mapToObj(i -> PropertiesParser.builder().build()
+            .parse("app.name=service-" + i + "\napp.port=" + (8080 + i) + "\n")
+            .findFirst()
+            .orElseThrow()
+            .<SourceFile>withSourcePath(Paths.get("module-" + i + "/application.properties")))
+          .toList();
+        ExecutionContext ctx = new InMemoryExecutionContext();
+
+        PropertiesAccumulator sequential = recipe.getInitialValue(ctx);
+        sourceFiles.forEach(sourceFile -> recipe.getScanner(sequential).visit(sourceFile, ctx));
+        PropertiesAccumulator parallel = recipe.getInitialValue(ctx);
+        sourceFiles.parallelStream().forEach(sourceFile -> recipe.getScanner(parallel).visit(sourceFile, ctx));
+
+        assertThat(parallel.pathToProperties()).isEqualTo(sequential.pathToProperties());
+        assertThat(print(recipe.generate(parallel, ctx))).isEqualTo(print(recipe.generate(sequential, ctx)));
+    }
+
+    @Test
+    void generateManyFilesInPathOrder() {
+        ConvertPropertiesToYaml recipe = new ConvertPropertiesToYaml(null, true, null);
+        ExecutionContext ctx = new InMemoryExecutionContext();
+        PropertiesAccumulator acc = recipe.getInitialValue(ctx);
+        for (int i = 0; i < 500; i++) {
+            PropertyTrie properties = new PropertyTrie(true);
+            properties.put("server.port", String.valueOf(8080 + i), List.of());
+            acc.pathToProperties().put(Paths.get("module-" + i + "/application.properties"), properties);
+        }
+
+        List<String> generated = recipe.generate(acc, ctx).stream()
+          .map(sourceFile -> sourceFile.getSourcePath().toString())
+          .toList();
+
+        assertThat(generated).hasSize(500).isSorted();
+        assertThat(generated).contains("module-42/application.yml");
+    }
+
+    private static List<String> print(Collection<? extends SourceFile> sourceFiles) {
+        return sourceFiles.stream()
+          .map(sourceFile -> sourceFile.getSourcePath() + ":" + sourceFile.printAll())
+          .toList();
+    }
+}
@@ -0,0 +1,48 @@
+package org.openrewrite.contrib.convert;
+
+import org.junit.jupiter.api.Test;
+import org.openrewrite.yaml.YamlParser;
+import org.openrewrite.yaml.tree.Yaml;
+
+import java.nio.file.Paths;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PropertiesAccumulatorTest {
+
+    private static Yaml.Documents yaml(String path, String text) {
+        return (Yaml.Documents) YamlParser.builder().build().parse(text).findFirst().orElseThrow()
+          .withSourcePath(Paths.get(path));
+    }
+
+    @Test
+    void collectNestedYaml() {
+        PropertiesAccumulator acc = new PropertiesAccumulator(true);
+        acc.collectSourceFileProperties(yaml("application.yml",
+          """
+            spring:
+              datasource:
+                url: jdbc:h2:mem:test
+                username: sa
+              application:
+                name: demo
+            server:
+              port: 8080
+            """
+        ));
+
+        PropertyTrie properties = acc.pathToProperties().get(Paths.get("application.yml"));
+        assertThat(properties.getRoot().getChildren()).extracting(PropertyTrie.Node::getSegment)
+          .containsExactly("server", "spring");
+
+        PropertyTrie.Node spring = properties.getRoot().getChild("spring");
+        assertThat(spring.getValue()).isNull();
+        assertThat(spring.getChildren()).extracting(PropertyTrie.Node::getSegment)
+          .containsExactly("application", "datasource");
+        assertThat(spring.getChild("datasource").getValue()).isNull();
+        assertThat(spring.getChild("datasource").getChild("url").getValue()).isEqualTo("jdbc:h2:mem:test");
+        assertThat(spring.getChild("datasource").getChild("username").getValue()).isEqualTo("sa");
+        assertThat(spring.getChild("application").getChild("name").getValue()).isEqualTo("demo");
+        assertThat(properties.getRoot().getChild("server").getChild("port").getValue()).isEqualTo("8080");
+    }
+}
@@ -0,0 +1,80 @@
+package org.openrewrite.contrib.convert;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openrewrite.properties.PropertiesParser;
+import org.openrewrite.properties.tree.Properties;
+import org.openrewrite.yaml.YamlParser;
+import org.openrewrite.yaml.tree.Yaml;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PropertyKeyIndexTest {
+
+    private static Properties.File properties(String path, String text) {
+        return (Properties.File) PropertiesParser.builder().build().parse(text).findFirst().orElseThrow()
+          .withSourcePath(Paths.get(path));
+    }
+
+    private static Yaml.Documents yaml(String path, String text) {
+        return (Yaml.Documents) YamlParser.builder().build().parse(text).findFirst().orElseThrow()
+          .withSourcePath(Paths.get(path));
+    }
+
+    @Test
+    void findKeysUnderPrefix(@TempDir Path tempDir) {
+        PropertiesAccumulator acc = new PropertiesAccumulator(false);
+        acc.collectSourceFileProperties(properties("a/application.properties",
+          """
+            spring.datasource.url=jdbc:h2:mem:a
+            spring.datasource-extra.url=jdbc:h2:mem:extra
+            server.port=8080
+            """
+        ));
+        acc.collectSourceFileProperties(yaml("b/application.yml",
+          """
+            spring:
+              datasource:
+                username: sa
+            """
+        ));
+
+        PropertyKeyIndex index = PropertyKeyIndex.write(tempDir.resolve("keys.idx"), acc);
+
+        assertThat(index.size()).isEqualTo(4);
+        assertThat(index.find("spring.datasource.*")).containsExactly(
+          new PropertyKeyIndex.Entry("spring.datasource.url", Paths.get("a/application.properties"), "jdbc:h2:mem:a"),
+          new PropertyKeyIndex.Entry("spring.datasource.username", Paths.get("b/application.yml"), "sa")
+        );
+        assertThat(index.findSourcePaths("server.port")).containsExactly(Paths.get("a/application.properties"));
+        assertThat(index.find("management")).isEmpty();
+        assertThat(PropertyKeyIndex.open(tempDir.resolve("keys.idx")).find("spring")).hasSize(3);
+    }
+
+    @Test
+    void updateChangedAndDeletedFiles(@TempDir Path tempDir) {
+        Path indexFile = tempDir.resolve("keys.idx");
+        PropertiesAccumulator acc = new PropertiesAccumulator(false);
+        acc.collectSourceFileProperties(properties("a/application.properties", "spring.datasource.url=jdbc:h2:mem:a\n"));
+        acc.collectSourceFileProperties(properties("b/application.properties", "spring.datasource.url=jdbc:h2:mem:b\n"));
+        acc.collectSourceFileProperties(properties("c/application.properties", "server.port=8080\n"));
+        PropertyKeyIndex.write(indexFile, acc);
+
+        PropertiesAccumulator changed = new PropertiesAccumulator(false);
+        changed.collectSourceFileProperties(properties("a/application.properties", "server.port=9090\n"));
+        PropertyKeyIndex index = PropertyKeyIndex.update(indexFile, changed, List.of(Paths.get("c/application.properties")));
+
+        assertThat(index.getSourcePaths()).containsExactlyInAnyOrder(
+          Paths.get("a/application.properties"),
+          Paths.get("b/application.properties")
+        );
+        assertThat(index.findSourcePaths("spring.datasource")).containsExactly(Paths.get("b/application.properties"));
+        assertThat(index.find("server")).containsExactly(
+          new PropertyKeyIndex.Entry("server.port", Paths.get("a/application.properties"), "9090")
+        );
+    }
+}
@@ -0,0 +1,76 @@
+package org.openrewrite.contrib.convert;
+
+import org.junit.jupiter.api.Test;
+import org.openrewrite.contrib.serialization.StringInterner;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PropertyTrieTest {
+
+    @Test
+    void iterateInInsertionOrder() {
+        PropertyTrie properties = new PropertyTrie(false);
+        properties.put(List.of("my", "string"), "value", List.of());
+        properties.put(List.of("my", "boolean"), "true", List.of(" A boolean"));
+        properties.put(List.of("app"), "name", List.of());
+        properties.trimToSize();
+
+        assertThat(properties.getRoot().getChildren()).extracting(PropertyTrie.Node::getSegment).containsExactly("my", "app");
+        PropertyTrie.Node my = properties.getRoot().getChild("my");
+        assertThat(my).isNotNull();
+        assertThat(my.getValue()).isNull();
+        assertThat(my.getChildren()).extracting(PropertyTrie.Node::getSegment).containsExactly("string", "boolean");
+        assertThat(my.getChild("boolean").getComments()).containsExactly(" A boolean");
+        assertThat(my.getChild("string").getComments()).isEmpty();
+    }
+
+    @Test
+    void iterateInKeyOrder() {
+        PropertyTrie properties = new PropertyTrie(true);
+        for (String key : List.of("d", "b", "e", "a", "c")) {
+            properties.put(List.of("letters", key), key, List.of());
+        }
+
+        assertThat(properties.getRoot().getChild("letters").getChildren())
+          .extracting(PropertyTrie.Node::getSegment)
+          .containsExactly("a", "b", "c", "d", "e");
+    }
+
+    @Test
+    void replaceValuesAndRejectKeysThroughValues() {
+        PropertyTrie properties = new PropertyTrie(false);
+        properties.put(List.of("a", "b"), "1", List.of());
+        properties.put(List.of("a", "b"), "2", List.of());
+        assertThat(properties.getRoot().getChild("a").getChild("b").getValue()).isEqualTo("2");
+
+        assertThatThrownBy(() -> properties.put(List.of("a", "b", "c"), "3", List.of()))
+          .isInstanceOf(IllegalArgumentException.class)
+          .hasMessage("Cannot create property 'a.b.c' because 'a.b' is not a map");
+    }
+
+    @Test
+    void splitDottedKeysLikeStringSplit() {
+        for (String key : List.of("a", "spring.datasource.url", "x..y", "t.r.", "m.c.d")) {
+            PropertyTrie bySegments = new PropertyTrie(true);
+            bySegments.put(List.of(key.split("\\.")), "value", List.of());
+            PropertyTrie byKey = new PropertyTrie(true);
+            byKey.put(key, "value", List.of());
+            assertThat(byKey).as(key).isEqualTo(bySegments);
+        }
+    }
+
+    @Test
+    void shareSegmentsAcrossTries() {
+        StringInterner segments = new StringInterner();
+        PropertyTrie first = new PropertyTrie(false, segments);
+        PropertyTrie second = new PropertyTrie(true, segments);
+        first.put("spring.datasource.url", "jdbc:h2:mem:first", List.of());
+        second.put(new String("spring.datasource.url"), "jdbc:h2:mem:second", List.of());
+
+        assertThat(first.getRoot().getChild("spring").getChild("datasource").getSegment())
+          .isSameAs(second.getRoot().getChild("spring").getChild("datasource").getSegment());
+    }
+}
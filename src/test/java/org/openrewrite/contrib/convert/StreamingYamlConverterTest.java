@@ -0,0 +1,148 @@
+package org.openrewrite.contrib.convert;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StreamingYamlConverterTest {
+
+    private static final String PROPERTIES =
+      """
+        # The server
+        server.port=8080
+        spring.datasource.url=jdbc:h2:mem:test
+        spring.application.name : demo
+        ! repeated
+        server.port=9090
+        long.value=one \\
+          two
+        """;
+
+    private static final String YAML =
+      """
+        long:
+          value: one two
+        server:
+          # repeated
+          port: 9090
+        spring:
+          application:
+            name: demo
+          datasource:
+            url: "jdbc:h2:mem:test"
+        """;
+
+    private static String convert(StreamingYamlConverter converter, String properties) {
+        StringWriter yaml = new StringWriter();
+        converter.convert(new StringReader(properties), yaml);
+        return yaml.toString();
+    }
+
+    @Test
+    void convertInMemory(@TempDir Path tempDir) {
+        assertThat(convert(new StreamingYamlConverter(100, tempDir), PROPERTIES)).isEqualTo(YAML);
+    }
+
+    @Test
+    void convertWithSpilledRuns(@TempDir Path tempDir) throws Exception {
+        assertThat(convert(new StreamingYamlConverter(2, tempDir), PROPERTIES)).isEqualTo(YAML);
+        try (var files = Files.list(tempDir)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    /**
+     * @return 2,000 properties, which are also put in the trie
+     */
+    private static String properties(PropertyTrie trie) {
+        StringBuilder properties = new StringBuilder();
+        String[] branches = {"spring", "datasource", "server", "logging", "a-b"};
+        String[] leaves = {"url", "port", "name", "level"};
+        for (int i = 0; i < 2_000; i++) {
+            String key = branches[i % 5] + "." + branches[i / 5 % 5] + "." + branches[i / 25 % 5] + i / 125 +
+                         "." + leaves[i % 4];
+            properties.append(key).append('=').append(i).append('\n');
+            trie.put(key, String.valueOf(i), List.of());
+        }
+        return properties.toString();
+    }
+
+    @Test
+    void sameOutputAsSortedTrie(@TempDir Path tempDir) {
+        PropertyTrie trie = new PropertyTrie(true);
+        assertThat(convert(new StreamingYamlConverter(97, tempDir), properties(trie)))
+          .isEqualTo(YamlConverterUtils.toYaml(trie));
+
+        // Trailing dots are dropped, so a later "a." replaces "a"
+        for (String properties : List.of("a=1\na.=2\n", "a.=1\na=2\n", "x.y=1\nx.y..=2\nx.z=3\n")) {
+            PropertyTrie withTrailingDots = new PropertyTrie(true);
+            for (String line : properties.split("\n")) {
+                String[] keyValue = line.split("=");
+                withTrailingDots.put(keyValue[0], keyValue[1], List.of());
+            }
+            assertThat(convert(new StreamingYamlConverter(1, tempDir), properties)).as(properties)
+              .isEqualTo(YamlConverterUtils.toYaml(withTrailingDots));
+        }
+    }
+
+    @Test
+    void mergeManyRunsInPasses(@TempDir Path tempDir) throws Exception {
+        // 400 runs, more than can be merged at once
+        PropertyTrie trie = new PropertyTrie(true);
+        assertThat(convert(new StreamingYamlConverter(5, tempDir), properties(trie)))
+          .isEqualTo(YamlConverterUtils.toYaml(trie));
+        try (var files = Files.list(tempDir)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    void laterValueReplacesNestedProperties(@TempDir Path tempDir) {
+        assertThat(convert(new StreamingYamlConverter(1, tempDir), "a.b.c=1\na.b=2\n")).isEqualTo(
+          """
+            a:
+              b: 2
+            """
+        );
+    }
+
+    @Test
+    void nestedPropertyUnderValueIsRejected(@TempDir Path tempDir) {
+        assertThatThrownBy(() -> convert(new StreamingYamlConverter(1, tempDir), "a.b=2\na.b.c=1\n"))
+          .isInstanceOf(IllegalArgumentException.class)
+          .hasMessage("Cannot create property 'a.b.c' because 'a.b' is not a map");
+    }
+
+    @Test
+    void convertFiles(@TempDir Path tempDir) throws Exception {
+        Path properties = tempDir.resolve("application.properties");
+        Path yaml = tempDir.resolve("application.yml");
+        Files.write(properties, PROPERTIES.getBytes(StandardCharsets.UTF_8));
+
+        new StreamingYamlConverter().convert(properties, yaml);
+
+        assertThat(Files.readString(yaml)).isEqualTo(YAML);
+    }
+
+    @Test
+    void failedConversionLeavesNoYamlFile(@TempDir Path tempDir) throws Exception {
+        Path properties = tempDir.resolve("application.properties");
+        Path yaml = tempDir.resolve("application.yml");
+        Files.write(properties, "a.b=2\na.b.c=1\n".getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> new StreamingYamlConverter().convert(properties, yaml))
+          .isInstanceOf(IllegalArgumentException.class);
+        try (var files = Files.list(tempDir)) {
+            assertThat(files).containsExactly(properties);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package org.openrewrite.contrib.convert;
+
+import org.junit.jupiter.api.Test;
+import org.openrewrite.yaml.YamlParser;
+import org.openrewrite.yaml.tree.Yaml;
+
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class YamlConverterUtilsTest {
+
+    @Test
+    void buildDocumentsThatPrintLikeTheRenderedYaml() {
+        PropertyTrie properties = new PropertyTrie(false);
+        properties.put(List.of("server", "port"), "8080", List.of(" The port"));
+        properties.put(List.of("server", "address"), "http://localhost", List.of());
+        properties.put(List.of("names"), List.of("a", "say \"hi\""), List.of(" Quoted"));
+
+        Yaml.Documents documents = YamlConverterUtils.toYamlDocuments(Paths.get("application.yml"), properties);
+
+        assertThat(documents.getSourcePath()).isEqualTo(Paths.get("application.yml"));
+        assertThat(documents.printAll()).isEqualTo(
+          """
+            server:
+              # The port
+              port: 8080
+              address: "http://localhost"
+            # Quoted
+            names:
+              - a
+              - 'say "hi"'
+            """
+        );
+        assertThat(documents.printAll()).isEqualTo(YamlConverterUtils.toYaml(properties));
+        assertThat(YamlParser.builder().build().parse(documents.printAll()).findFirst().orElseThrow().printAll())
+          .isEqualTo(documents.printAll());
+    }
+}
@@ -0,0 +1,192 @@
+package org.openrewrite.contrib.execution;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openrewrite.Recipe;
+import org.openrewrite.SourceFile;
+import org.openrewrite.contrib.convert.ConvertPropertiesToYaml;
+import org.openrewrite.contrib.serialization.LstArchive;
+import org.openrewrite.contrib.serialization.LstArchiveWriter;
+import org.openrewrite.contrib.serialization.LstSerializer;
+import org.openrewrite.contrib.spring.CodeStubs;
+import org.openrewrite.contrib.spring.FindInlineSpringBootProperties;
+import org.openrewrite.contrib.spring.table.SpringBootPropertyReport;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.properties.PropertiesParser;
+import org.openrewrite.table.SourcesFileResults;
+import org.openrewrite.text.FindAndReplace;
+import org.openrewrite.text.PlainText;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.openrewrite.contrib.spring.table.SpringBootPropertyReport.Type;
+
+class ShardedRecipeRunnerTest {
+
+    private final LstSerializer serializer = new LstSerializer(LstSerializer.Format.SMILE);
+
+    private final Recipe recipe = new FindAndReplace("hello", "goodbye", null, null, null, null, null, null);
+
+    private static List<SourceFile> repository(int repository) {
+        return IntStream.range(0, 3)
+          .mapToObj(i -> (SourceFile) PlainText.builder()
+            .sourcePath(Paths.get("repository" + repository, "file" + i + ".txt"))
+            .text("hello " + repository)
+            .build())
+          .toList();
+    }
+
+    private static List<SourceFile> propertiesRepository(int repository) {
+        return PropertiesParser.builder().build().parse(
+            "repository" + repository + ".name=r" + repository + "\nshard.id=" + repository + "\n")
+          .map(sourceFile -> (SourceFile) sourceFile.withSourcePath(
+            Paths.get("repository" + repository, "src/main/resources/application.properties")))
+          .toList();
+    }
+
+    private static List<SourceFile> javaRepository(int repository) {
+        return JavaParser.fromJavaVersion()
+          .dependsOn(CodeStubs.SPRING_VALUE)
+          .build()
+          .parse(
+            """
+              package org.cool;
+
+              import org.springframework.beans.factory.annotation.Value;
+
+              public class Repository%d {
+                  @Value("${repository%d.property}")
+                  String property;
+              }
+              """.formatted(repository, repository)
+          )
+          .toList();
+    }
+
+    private List<Path> writeShards(Path tempDir, int count) throws IOException {
+        return writeShards(tempDir, count, ShardedRecipeRunnerTest::repository);
+    }
+
+    private List<Path> writeShards(Path tempDir, int count, IntFunction<List<SourceFile>> repository) throws IOException {
+        List<Path> shards = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Path shard = tempDir.resolve("repository" + i + ".lst");
+            if (i % 2 == 0) {
+                try (OutputStream output = Files.newOutputStream(shard)) {
+                    serializer.serialize(repository.apply(i), output);
+                }
+            } else {
+                try (LstArchiveWriter writer = new LstArchiveWriter(serializer, Files.newOutputStream(shard))) {
+                    writer.writeAll(repository.apply(i));
+                }
+            }
+            shards.add(shard);
+        }
+        return shards;
+    }
+
+    @Test
+    void runRecipeOverEveryShard(@TempDir Path tempDir) throws IOException {
+        List<Path> shards = writeShards(tempDir, 10);
+        assertThat(LstArchive.isArchive(shards.get(0))).isFalse();
+        assertThat(LstArchive.isArchive(shards.get(1))).isTrue();
+
+        Thread caller = Thread.currentThread();
+        List<ShardResult> results = new ArrayList<>();
+        ShardedRun run = new ShardedRecipeRunner(serializer, 3, 4).run(recipe, shards, result -> {
+            assertThat(Thread.currentThread()).isSameAs(caller);
+            results.add(result);
+        });
+
+        assertThat(results).hasSize(10).allSatisfy(result -> {
+            assertThat(result.isFailed()).isFalse();
+            assertThat(result.getSourceFiles()).isEqualTo(3);
+            assertThat(result.getResults()).hasSize(3)
+              .allSatisfy(r -> assertThat(r.getAfter().printAll()).startsWith("goodbye "));
+        });
+        assertThat(run.getShards()).isEqualTo(10);
+        assertThat(run.getResults()).isEqualTo(30);
+        assertThat(run.getFailedShards()).isEmpty();
+
+        // The rows are merged in shard order
+        List<SourcesFileResults.Row> rows = run.getDataTableRows(SourcesFileResults.class.getName());
+        assertThat(rows).hasSize(30);
+        assertThat(rows.get(0).getSourcePath()).isEqualTo("repository0/file0.txt");
+        assertThat(rows.get(29).getSourcePath()).isEqualTo("repository9/file2.txt");
+    }
+
+    @Test
+    void failedShardDoesNotStopTheOthers(@TempDir Path tempDir) throws IOException {
+        List<Path> shards = writeShards(tempDir, 2);
+        Path corrupt = tempDir.resolve("corrupt.lst");
+        Files.write(corrupt, new byte[]{1, 2, 3, 4, 5});
+        shards.add(1, corrupt);
+
+        ShardedRun run = new ShardedRecipeRunner(serializer, 2, 2).run(recipe, shards, result -> {
+        });
+
+        assertThat(run.getShards()).isEqualTo(3);
+        assertThat(run.getResults()).isEqualTo(6);
+        assertThat(run.getFailedShards()).containsExactly(corrupt);
+    }
+
+    @Test
+    void generateFilesPerShard(@TempDir Path tempDir) throws IOException {
+        List<Path> shards = writeShards(tempDir, 4, ShardedRecipeRunnerTest::propertiesRepository);
+
+        List<ShardResult> results = new ArrayList<>();
+        ShardedRun run = new ShardedRecipeRunner(serializer, 2, 2)
+          .run(new ConvertPropertiesToYaml(null, true, null), shards, results::add);
+        assertThat(run.getFailedShards()).isEmpty();
+        assertThat(run.getResults()).isEqualTo(8);
+
+        for (ShardResult result : results) {
+            int repository = shards.indexOf(result.getShard());
+            // The properties file is deleted and a YAML file is generated from the shard's own properties only
+            assertThat(result.getResults()).hasSize(2);
+            assertThat(result.getResults()).filteredOn(r -> r.getAfter() == null).singleElement()
+              .satisfies(r -> assertThat(r.getBefore().getSourcePath())
+                .isEqualTo(Paths.get("repository" + repository, "src/main/resources/application.properties")));
+            assertThat(result.getResults()).filteredOn(r -> r.getBefore() == null).singleElement()
+              .satisfies(r -> {
+                  assertThat(r.getAfter().getSourcePath())
+                    .isEqualTo(Paths.get("repository" + repository, "src/main/resources/application.yml"));
+                  String yaml = r.getAfter().printAll();
+                  assertThat(yaml).contains("repository" + repository + ":", "name: r" + repository,
+                    "id: " + repository);
+                  for (int other = 0; other < shards.size(); other++) {
+                      if (other != repository) {
+                          assertThat(yaml).doesNotContain("repository" + other + ":", "name: r" + other);
+                      }
+                  }
+              });
+        }
+    }
+
+    @Test
+    void mergeReportRowsInShardOrder(@TempDir Path tempDir) throws IOException {
+        List<Path> shards = writeShards(tempDir, 4, ShardedRecipeRunnerTest::javaRepository);
+
+        ShardedRun run = new ShardedRecipeRunner(serializer, 4, 4)
+          .run(new FindInlineSpringBootProperties(false), shards, result -> {
+          });
+        assertThat(run.getFailedShards()).isEmpty();
+
+        List<SpringBootPropertyReport.Row> rows = run.getDataTableRows(SpringBootPropertyReport.class.getName());
+        assertThat(rows).containsExactly(
+          new SpringBootPropertyReport.Row("repository0.property", Type.VALUE, "org/cool/Repository0.java"),
+          new SpringBootPropertyReport.Row("repository1.property", Type.VALUE, "org/cool/Repository1.java"),
+          new SpringBootPropertyReport.Row("repository2.property", Type.VALUE, "org/cool/Repository2.java"),
+          new SpringBootPropertyReport.Row("repository3.property", Type.VALUE, "org/cool/Repository3.java")
+        );
+    }
+}
@@ -0,0 +1,255 @@
+package org.openrewrite.contrib.serialization;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openrewrite.Checksum;
+import org.openrewrite.SourceFile;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.java.internal.JavaTypeCache;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaType;
+import org.openrewrite.marker.Marker;
+import org.openrewrite.marker.SearchResult;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LstArchiveTest {
+
+    private final JavaParser.Builder<? extends JavaParser, ?> javaParserBuilder = JavaParser
+      .fromJavaVersion()
+      .typeCache(new JavaTypeCache())
+      .classpath("guava");
+
+    private List<SourceFile> parse() {
+        return javaParserBuilder.build().parse(
+          """
+            package org.cool;
+
+            import com.google.common.collect.Lists;
+            import java.util.ArrayList;
+import java.util.List;
+
+            public class A {
+                List<String> lst = Lists.newArrayList("a", "b", "c");
+            }
+            """,
+          """
+            package org.cool.other;
+
+            public class B {
+                int count;
+            }
+            """
+        ).toList();
+    }
+
+    @Test
+    void readSingleSourceFile(@TempDir Path tempDir) throws IOException {
+        LstSerializer serializer = new LstSerializer(LstSerializer.Format.SMILE);
+        List<SourceFile> sources = parse();
+
+        Path archivePath = tempDir.resolve("sources.lsta");
+        try (LstArchiveWriter writer = new LstArchiveWriter(serializer, Files.newOutputStream(archivePath))) {
+            writer.writeAll(sources);
+        }
+
+        try (LstArchive archive = LstArchive.open(serializer, archivePath)) {
+            assertThat(archive.getSourcePaths()).containsExactly(
+              Paths.get("org/cool/A.java"),
+              Paths.get("org/cool/other/B.java")
+            );
+            assertThat(archive.read(Paths.get("org/cool/other/B.java"))).isEqualTo(sources.get(1));
+            assertThat(archive.read(Paths.get("org/cool/C.java"))).isNull();
+            assertThat(archive.readAll()).isEqualTo(sources);
+        }
+    }
+
+    @Test
+    void readMatchingCompressedSourceFiles(@TempDir Path tempDir) throws IOException {
+        LstSerializer serializer = new LstSerializer();
+        List<SourceFile> sources = parse();
+
+        Path archivePath = tempDir.resolve("sources.lsta");
+        try (LstArchiveWriter writer = new LstArchiveWriter(serializer, Files.newOutputStream(archivePath), true)) {
+            writer.writeAll(sources);
+        }
+
+        try (LstArchive archive = LstArchive.open(serializer, archivePath)) {
+            assertThat(archive.isCompressed()).isTrue();
+            assertThat(archive.readAll("org/cool/*.java")).containsExactly(sources.get(0));
+            assertThat(archive.readAll("**/other/*.java")).containsExactly(sources.get(1));
+        }
+    }
+
+    @Test
+    void decodeLazilyFromMappedArchive(@TempDir Path tempDir) throws IOException {
+        LstSerializer serializer = new LstSerializer(LstSerializer.Format.SMILE);
+        List<SourceFile> sources = parse();
+
+        Path archivePath = tempDir.resolve("sources.lsta");
+        try (LstArchiveWriter writer = new LstArchiveWriter(serializer, Files.newOutputStream(archivePath), true)) {
+            writer.writeAll(sources);
+        }
+
+        try (MappedLstStore store = MappedLstStore.open(serializer, archivePath)) {
+            Path a = Paths.get("org/cool/A.java");
+            Path b = Paths.get("org/cool/other/B.java");
+            assertThat(store.getSourcePaths()).containsExactly(a, b);
+            assertThat(store.isDecoded(a)).isFalse();
+
+            assertThat(store.get(a)).isEqualTo(sources.get(0));
+            assertThat(store.isDecoded(a)).isTrue();
+            assertThat(store.isDecoded(b)).isFalse();
+
+            store.evict();
+            assertThat(store.isDecoded(a)).isFalse();
+            assertThat(store.getAll("**")).isEqualTo(sources);
+        }
+    }
+
+    @Test
+    void readHeadersWithoutDecodingTrees(@TempDir Path tempDir) throws IOException {
+        LstSerializer serializer = new LstSerializer(LstSerializer.Format.SMILE);
+        List<SourceFile> sources = parse();
+
+        Path archivePath = tempDir.resolve("sources.lsta");
+        try (LstArchiveWriter writer = new LstArchiveWriter(serializer, Files.newOutputStream(archivePath), true)) {
+            writer.writeAll(sources);
+        }
+
+        try (LstArchive archive = LstArchive.open(serializer, archivePath)) {
+            SourceFileHeader header = archive.readHeader(Paths.get("org/cool/A.java"));
+            assertThat(header).isNotNull();
+            assertThat(header.getSourcePath()).isEqualTo(Paths.get("org/cool/A.java"));
+            assertThat(header.isInstanceOf(J.CompilationUnit.class)).isTrue();
+            assertThat(header.getCharset()).isEqualTo(sources.get(0).getCharset().name());
+            assertThat(header.getChecksum()).isNull();
+            assertThat(header.hasMarker(SearchResult.class)).isFalse();
+
+            List<LazySourceFile> handles = archive.streamLazy("**/other/*.java").toList();
+            assertThat(handles).hasSize(1);
+            assertThat(handles.get(0).isDecoded()).isFalse();
+            assertThat(handles.get(0).get()).isEqualTo(sources.get(1));
+            assertThat(handles.get(0).get().getSourcePath()).isEqualTo(Paths.get("org/cool/other/B.java"));
+            assertThat(handles.get(0).isDecoded()).isTrue();
+        }
+    }
+
+    @Test
+    void filterByChecksumAndMarkerWithoutDecodingTrees(@TempDir Path tempDir) throws IOException {
+        LstSerializer serializer = new LstSerializer(LstSerializer.Format.SMILE);
+        Checksum checksum = Checksum.fromHex("SHA-256", "2c26b46b68ffc68ff99b453c1d30413413422d706483bfa0f98a5e886266e7ae");
+        List<SourceFile> sources = parse();
+        sources = List.of(sources.get(0).withChecksum(checksum), SearchResult.found(sources.get(1)));
+
+        Path archivePath = tempDir.resolve("sources.lsta");
+        try (LstArchiveWriter writer = new LstArchiveWriter(serializer, Files.newOutputStream(archivePath), true)) {
+            writer.writeAll(sources);
+        }
+
+        try (LstArchive archive = LstArchive.open(serializer, archivePath)) {
+            List<LazySourceFile> handles = archive.streamLazy("**").toList();
+
+            List<LazySourceFile> withChecksum = handles.stream()
+              .filter(handle -> checksum.equals(handle.getHeader().getChecksum()))
+              .toList();
+            assertThat(withChecksum).extracting(LazySourceFile::getSourcePath)
+              .containsExactly(Paths.get("org/cool/A.java"));
+
+            List<LazySourceFile> found = handles.stream()
+              .filter(handle -> handle.getHeader().hasMarker(SearchResult.class))
+              .toList();
+            assertThat(found).extracting(LazySourceFile::getSourcePath)
+              .containsExactly(Paths.get("org/cool/other/B.java"));
+            assertThat(found.get(0).getHeader().getMarkerTypes()).contains(SearchResult.class.getName());
+            assertThat(found.get(0).getHeader().hasMarker(Marker.class)).isTrue();
+
+            assertThat(handles).noneMatch(LazySourceFile::isDecoded);
+            assertThat(found.get(0).get()).isEqualTo(sources.get(1));
+        }
+    }
+
+    @Test
+    void shareTypesAcrossArchives(@TempDir Path tempDir) throws IOException {
+        LstSerializer serializer = new LstSerializer(LstSerializer.Format.SMILE);
+        List<SourceFile> sources = parse();
+
+        Path firstPath = tempDir.resolve("first.lsta");
+        Path secondPath = tempDir.resolve("second.lsta");
+        for (Path archivePath : List.of(firstPath, secondPath)) {
+            try (LstArchiveWriter writer = new LstArchiveWriter(serializer, Files.newOutputStream(archivePath))) {
+                writer.writeAll(sources);
+            }
+        }
+
+        JavaTypeCache typeCache = new JavaTypeCache();
+        try (LstArchive first = LstArchive.open(serializer, firstPath, typeCache);
+             LstArchive second = LstArchive.open(serializer, secondPath, typeCache)) {
+            J.CompilationUnit a1 = (J.CompilationUnit) first.read(Paths.get("org/cool/A.java"));
+            J.CompilationUnit a2 = (J.CompilationUnit) second.read(Paths.get("org/cool/A.java"));
+            assertThat(a1).isEqualTo(sources.get(0));
+            assertThat(first.getTypeTable().getTypes()).containsKeys("org.cool.A", "java.util.List<java.lang.String>");
+            assertThat(a1.getClasses().get(0).getType()).isSameAs(a2.getClasses().get(0).getType());
+
+            // Types nested in other types' graphs are shared too, not only the entries of the table
+            JavaType.Parameterized list1 = (JavaType.Parameterized) first.getTypeTable().get("java.util.List<java.lang.String>");
+            JavaType.Parameterized list2 = (JavaType.Parameterized) second.getTypeTable().get("java.util.List<java.lang.String>");
+            assertThat(list1).isSameAs(list2);
+            assertThat(list1.getType()).isSameAs(typeCache.get("java.util.List"));
+            assertThat(list1.getTypeParameters().get(0)).isSameAs(typeCache.get("java.lang.String"));
+        }
+    }
+
+    @Test
+    void parallelWriteMatchesSequentialWrite(@TempDir Path tempDir) throws IOException {
+        LstSerializer serializer = new LstSerializer(LstSerializer.Format.SMILE);
+        List<SourceFile> sources = parse();
+
+        ByteArrayOutputStream sequential = new ByteArrayOutputStream();
+        try (LstArchiveWriter writer = new LstArchiveWriter(serializer, sequential, true)) {
+            writer.writeAll(sources);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            ByteArrayOutputStream parallel = new ByteArrayOutputStream();
+            try (LstArchiveWriter writer = new LstArchiveWriter(serializer, parallel, true)) {
+                writer.writeAll(sources, executor);
+            }
+            assertThat(parallel.toByteArray()).isEqualTo(sequential.toByteArray());
+
+            Path archivePath = Files.write(tempDir.resolve("sources.lsta"), parallel.toByteArray());
+            try (LstArchive archive = LstArchive.open(serializer, archivePath)) {
+                assertThat(archive.readAll("**", executor)).isEqualTo(sources);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void parallelWriteRejectsDuplicateSourcePaths() {
+        LstSerializer serializer = new LstSerializer(LstSerializer.Format.SMILE);
+        SourceFile a = parse().get(0);
+
+        // Tasks are queued and never run, so the first encode is still pending when the duplicate is found
+        List<Runnable> queued = new ArrayList<>();
+        try (LstArchiveWriter writer = new LstArchiveWriter(serializer, new ByteArrayOutputStream())) {
+            assertThatThrownBy(() -> writer.writeAll(List.of(a, a), queued::add))
+              .isInstanceOf(IllegalArgumentException.class)
+              .hasMessageContaining("org/cool/A.java");
+        }
+        assertThat(queued).hasSize(1);
+    }
+}
@@ -0,0 +1,108 @@
+package org.openrewrite.contrib.serialization;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openrewrite.SourceFile;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.java.internal.JavaTypeCache;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.properties.PropertiesParser;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LstParseCacheTest {
+
+    private static final String A = """
+      package org.cool;
+
+      import com.google.common.collect.Lists;
+      import java.util.List;
+
+      public class A {
+          List<String> lst = Lists.newArrayList("a", "b", "c");
+      }
+      """;
+
+    private static final String B = """
+      package org.cool;
+
+      public class B {
+          int count;
+      }
+      """;
+
+    private final JavaParser.Builder<? extends JavaParser, ?> javaParserBuilder = JavaParser
+      .fromJavaVersion()
+      .typeCache(new JavaTypeCache())
+      .classpath("guava");
+
+    @Test
+    void skipParserForUnchangedSources(@TempDir Path cacheDir) {
+        LstParseCache cache = new LstParseCache(cacheDir, 16 * 1024 * 1024);
+
+        List<SourceFile> parsed = cache.wrap(javaParserBuilder).build().parse(A, B).toList();
+        assertThat(cache.getHits()).isZero();
+        assertThat(cache.getMisses()).isEqualTo(2);
+
+        List<SourceFile> cached = cache.wrap(javaParserBuilder).build().parse(A, B).toList();
+        assertThat(cache.getHits()).isEqualTo(2);
+        assertThat(cached).isEqualTo(parsed);
+        assertThat(cached.get(0).printAll()).isEqualTo(A);
+
+        // Types of cached source files are resolved through the parser's type cache
+        assertThat(((J.CompilationUnit) cached.get(0)).getClasses().get(0).getType())
+          .isSameAs(((J.CompilationUnit) parsed.get(0)).getClasses().get(0).getType());
+    }
+
+    @Test
+    void parseChangedSourcesAgain(@TempDir Path cacheDir) {
+        LstParseCache cache = new LstParseCache(cacheDir, 16 * 1024 * 1024);
+        cache.wrap(javaParserBuilder).build().parse(A, B).toList();
+
+        List<SourceFile> sources = cache.wrap(javaParserBuilder).build()
+          .parse(A, B.replace("int count", "long count")).toList();
+        assertThat(cache.getHits()).isEqualTo(1);
+        assertThat(sources.get(1).printAll()).contains("long count");
+
+        // A different classpath is a different parser configuration
+        cache.wrap(JavaParser.fromJavaVersion().typeCache(new JavaTypeCache())).build().parse(B).toList();
+        assertThat(cache.getHits()).isEqualTo(1);
+    }
+
+    @Test
+    void parseAgainWhenDependenciesChange(@TempDir Path cacheDir) {
+        LstParseCache cache = new LstParseCache(cacheDir, 16 * 1024 * 1024);
+        String c = """
+          package org.cool;
+
+          public class C {
+              B b;
+          }
+          """;
+        cache.wrap(JavaParser.fromJavaVersion().typeCache(new JavaTypeCache()).dependsOn(B)).build().parse(c).toList();
+        cache.wrap(JavaParser.fromJavaVersion().typeCache(new JavaTypeCache()).dependsOn(B)).build().parse(c).toList();
+        assertThat(cache.getHits()).isEqualTo(1);
+
+        // The same source file parsed against a changed dependency is a miss
+        cache.wrap(JavaParser.fromJavaVersion().typeCache(new JavaTypeCache())
+          .dependsOn(B.replace("int count", "long count"))).build().parse(c).toList();
+        assertThat(cache.getHits()).isEqualTo(1);
+        assertThat(cache.getMisses()).isEqualTo(2);
+    }
+
+    @Test
+    void evictLeastRecentlyUsedEntries(@TempDir Path cacheDir) {
+        LstParseCache unbounded = new LstParseCache(cacheDir, Long.MAX_VALUE);
+        for (int i = 0; i < 20; i++) {
+            unbounded.wrap(PropertiesParser.builder()).build().parse("key" + i + "=value" + i).toList();
+        }
+
+        long maxBytes = unbounded.getSize() / 2;
+        LstParseCache bounded = new LstParseCache(cacheDir, maxBytes);
+        bounded.wrap(PropertiesParser.builder()).build().parse("another=value").toList();
+        assertThat(bounded.getSize()).isLessThanOrEqualTo(maxBytes);
+    }
+}
@@ -4,10 +4,24 @@ import org.junit.Test;
 import org.openrewrite.SourceFile;
 import org.openrewrite.java.JavaParser;
 import org.openrewrite.java.internal.JavaTypeCache;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaType;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 public class LstSerializerTest {
 
@@ -41,5 +55,145 @@ public class LstSerializerTest {
         assertEquals(sources, deserialized);
     }
 
+    @Test
+    public void serializeAndStream() {
+
+        List<SourceFile> sources = javaParserBuilder.build().parse(
+          """
+            import java.util.List;
+
+            public class A {
+                List<String> names;
+            }
+          """,
+          """
+            import java.util.List;
+
+            public class B {
+                List<Integer> counts;
+            }
+          """
+        ).toList();
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        serializer.serialize(sources, output);
+        try (Stream<SourceFile> deserialized = serializer.stream(new ByteArrayInputStream(output.toByteArray()))) {
+            assertEquals(sources, deserialized.toList());
+        }
+    }
+
+    @Test
+    public void serializeAndDeserializeEachFormat() {
+
+        List<SourceFile> sources = javaParserBuilder.build().parse(
+          """
+            import com.google.common.collect.Lists;
+            import java.util.List;
+
+            public class Test {
+                public void test() {
+                    List<String> lst = Lists.newArrayList("a", "b", "c");
+                }
+            }
+          """
+        ).toList();
+
+        for (LstSerializer.Format format : LstSerializer.Format.values()) {
+            LstSerializer formatSerializer = new LstSerializer(format);
+            byte[] serialized = formatSerializer.serialize(sources);
+            assertEquals(format.name(), sources, formatSerializer.deserialize(serialized));
+            try (Stream<SourceFile> streamed = formatSerializer.stream(new ByteArrayInputStream(serialized))) {
+                assertEquals(format.name(), sources, streamed.toList());
+            }
+        }
+    }
+
+    @Test
+    public void serializeToAndDeserializeFromChannels() throws IOException {
+
+        List<SourceFile> sources = javaParserBuilder.build().parse(
+          """
+            import com.google.common.collect.Lists;
+            import java.util.List;
+
+            public class Test {
+                public void test() {
+                    List<String> lst = Lists.newArrayList("a", "b", "c");
+                }
+            }
+          """
+        ).toList();
+
+        Path file = Files.createTempFile("sources", ".lst");
+        try {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                serializer.serialize(sources, channel);
+            }
+            try (FileChannel channel = FileChannel.open(file)) {
+                assertEquals(sources, serializer.deserialize(channel));
+            }
+
+            try (AsynchronousFileChannel channel = AsynchronousFileChannel.open(file,
+              StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                serializer.serializeAsync(sources, channel, 0, ForkJoinPool.commonPool()).join();
+                assertEquals(sources, serializer.deserializeAsync(channel, 0, ForkJoinPool.commonPool()).join());
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void internDecodedStrings() {
+
+        List<SourceFile> sources = javaParserBuilder.build().parse(
+          """
+            import java.util.List;
+
+            public class Test {
+                List<String> names;
+            }
+          """
+        ).toList();
+
+        StringInterner stringInterner = new StringInterner();
+        LstSerializer interningSerializer = serializer.withStringInterner(stringInterner);
+        byte[] serialized = interningSerializer.serialize(sources);
+        List<SourceFile> first = interningSerializer.deserialize(serialized);
+        List<SourceFile> second = interningSerializer.deserialize(serialized);
+
+        assertEquals(sources, first);
+        assertSame(
+          ((J.CompilationUnit) first.get(0)).getClasses().get(0).getSimpleName(),
+          ((J.CompilationUnit) second.get(0)).getClasses().get(0).getSimpleName()
+        );
+        assertTrue(stringInterner.getBytesSaved() > 0);
+    }
+
+    @Test
+    public void collectMetricsPerType() {
+
+        List<SourceFile> sources = javaParserBuilder.build().parse(
+          """
+            import java.util.List;
+
+            public class Test {
+                List<String> names;
+            }
+          """
+        ).toList();
+
+        LstMetrics metrics = new LstMetrics();
+        LstSerializer measuredSerializer = new LstSerializer(LstSerializer.Format.JSON_COMPACT).withMetricsListener(metrics);
+        byte[] serialized = measuredSerializer.serialize(sources.get(0));
+        assertEquals(sources.get(0), measuredSerializer.deserializeSourceFile(serialized));
+
+        assertEquals(serialized.length, metrics.getBytesWritten());
+        assertEquals(serialized.length, metrics.getBytesRead());
+        assertTrue(metrics.getEncoded().stream().anyMatch(type ->
+          type.getType() == J.CompilationUnit.class && type.getCount() == 1));
+        assertTrue(metrics.getDecoded().stream().anyMatch(type ->
+          JavaType.class.isAssignableFrom(type.getType()) && type.getBytes() > 0));
+    }
 
 }
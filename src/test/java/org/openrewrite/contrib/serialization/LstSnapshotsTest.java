@@ -0,0 +1,98 @@
+package org.openrewrite.contrib.serialization;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openrewrite.SourceFile;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.java.internal.JavaTypeCache;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LstSnapshotsTest {
+
+    private static final String A = """
+      package org.cool;
+
+      public class A {
+      }
+      """;
+
+    private static final String B = """
+      package org.cool;
+
+      public class B {
+          int count;
+      }
+      """;
+
+    private static final String B_CHANGED = """
+      package org.cool;
+
+      public class B {
+          long count;
+      }
+      """;
+
+    private static final String C = """
+      package org.cool;
+
+      public class C {
+      }
+      """;
+
+    private final JavaParser.Builder<? extends JavaParser, ?> javaParserBuilder = JavaParser
+      .fromJavaVersion()
+      .typeCache(new JavaTypeCache());
+
+    private List<SourceFile> parse(String... sources) {
+        return javaParserBuilder.build().parse(sources).toList();
+    }
+
+    @Test
+    void sameContentHashWhenParsedAgain() {
+        LstSerializer serializer = new LstSerializer(LstSerializer.Format.SMILE);
+        assertThat(serializer.contentHash(parse(B).get(0))).isEqualTo(serializer.contentHash(parse(B).get(0)));
+        assertThat(serializer.contentHash(parse(B).get(0))).isNotEqualTo(serializer.contentHash(parse(B_CHANGED).get(0)));
+    }
+
+    @Test
+    void deltaHoldsOnlyChangedSourceFiles(@TempDir Path tempDir) throws IOException {
+        LstSerializer serializer = new LstSerializer(LstSerializer.Format.SMILE);
+
+        Path basePath = tempDir.resolve("base.lsta");
+        Map<Path, String> baseManifest = LstSnapshots.writeSnapshot(serializer, parse(A, B),
+          Files.newOutputStream(basePath), true);
+
+        List<SourceFile> current = parse(B_CHANGED, C);
+        Path deltaPath = tempDir.resolve("delta.lsta");
+        Map<Path, String> manifest = LstSnapshots.writeDelta(serializer, baseManifest, current,
+          Files.newOutputStream(deltaPath), true);
+
+        try (LstArchive base = LstArchive.open(serializer, basePath);
+             LstArchive delta = LstArchive.open(serializer, deltaPath)) {
+            assertThat(delta.getSourcePaths()).containsExactly(
+              Paths.get("org/cool/B.java"),
+              Paths.get("org/cool/C.java")
+            );
+            assertThat(delta.getRemovedSourcePaths()).containsExactly(Paths.get("org/cool/A.java"));
+
+            List<LstArchive> chain = List.of(base, delta);
+            assertThat(LstSnapshots.manifest(chain)).isEqualTo(manifest);
+            assertThat(LstSnapshots.restore(chain)).isEqualTo(current);
+        }
+
+        Path unchangedPath = tempDir.resolve("unchanged.lsta");
+        LstSnapshots.writeDelta(serializer, manifest, parse(B_CHANGED, C), Files.newOutputStream(unchangedPath), true);
+        try (LstArchive unchanged = LstArchive.open(serializer, unchangedPath)) {
+            assertThat(unchanged.getSourcePaths()).isEmpty();
+            assertThat(unchanged.getRemovedSourcePaths()).isEmpty();
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package org.openrewrite.contrib.spring;
 
 import org.openrewrite.contrib.spring.table.SpringBootPropertyReport;
+import org.openrewrite.contrib.spring.table.SpringBootPropertySummary;
 import org.junit.jupiter.api.Test;
 import org.openrewrite.java.JavaParser;
 import org.openrewrite.test.RecipeSpec;
@@ -158,6 +159,219 @@ class FindInlineSpringBootPropertiesTest implements RewriteTest {
         );
     }
 
+    @Test
+    void valueFromConstants() {
+        rewriteRun(
+          spec -> spec.dataTable(SpringBootPropertyReport.Row.class, rows -> assertThat(rows).containsExactlyInAnyOrder(
+            new Row("my.property", Type.VALUE, "org/cool/MyConfiguration.java"),
+            new Row("my.other.property", Type.VALUE, "org/cool/MyConfiguration.java")
+          )),
+          //language=java
+          java(
+            """
+              package org.cool;
+
+              import org.springframework.beans.factory.annotation.Value;
+
+              public class MyConfiguration {
+
+                private static final String PREFIX = "my.";
+                public static final String MY_PROPERTY = "${" + PREFIX + "property}";
+
+                public class MyClass {
+                  @Value(MY_PROPERTY)
+                  private String myProperty;
+
+                  @Value(value = "${" + (MyConfiguration.PREFIX + "other") + ".property}")
+                  private String myOtherProperty;
+                }
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void valueConcatenatedWithConstantsFromOtherSourceFiles() {
+        rewriteRun(
+          spec -> spec.dataTable(SpringBootPropertyReport.Row.class, rows -> assertThat(rows).containsExactlyInAnyOrder(
+            new Row("server.port", Type.VALUE, "org/cool/MyClass.java"),
+            new Row("timeout", Type.VALUE, "org/cool/MyClass.java")
+          )),
+          //language=java
+          java(
+            """
+              package org.cool;
+
+              public class Other {
+                  public static final String SUFFIX = "-suffix";
+              }
+              """
+          ),
+          //language=java
+          java(
+            """
+              package org.cool;
+
+              public class Defaults {
+                  public static final String TIMEOUT = "30";
+              }
+              """
+          ),
+          //language=java
+          java(
+            """
+              package org.cool;
+
+              import org.springframework.beans.factory.annotation.Value;
+
+              public class MyClass {
+                  @Value("${server.port}" + Other.SUFFIX)
+                  private String port;
+
+                  @Value("${timeout:" + Defaults.TIMEOUT + "}")
+                  private String timeout;
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void conditionalOnPropertyFromConstants() {
+        rewriteRun(
+          spec -> spec.dataTable(SpringBootPropertyReport.Row.class, rows -> assertThat(rows).containsExactly(
+            new Row("my.property", Type.CONDITIONAL, "MyClass.java")
+          )),
+          //language=java
+          java(
+            """
+              import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+
+              @ConditionalOnProperty(name = MyClass.NAME, prefix = "m" + "y")
+              public class MyClass {
+                  static final String NAME = "property";
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void aggregateReferences() {
+        rewriteRun(
+          spec -> spec
+            .recipe(new FindInlineSpringBootProperties(false, true))
+            .dataTable(SpringBootPropertySummary.Row.class, rows -> assertThat(rows).containsExactly(
+              new SpringBootPropertySummary.Row("my.other.property", Type.VALUE, 1, "B.java"),
+              new SpringBootPropertySummary.Row("my.property", Type.VALUE, 3, "A.java, B.java"),
+              new SpringBootPropertySummary.Row("my.property", Type.CONDITIONAL, 1, "A.java")
+            )),
+          //language=java
+          java(
+            """
+              import org.springframework.beans.factory.annotation.Value;
+              import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+
+              @ConditionalOnProperty("my.property")
+              public class A {
+                  @Value("${my.property}")
+                  String myProperty;
+
+                  @Value("${my.property}")
+                  String sameProperty;
+              }
+              """
+          ),
+          //language=java
+          java(
+            """
+              import org.springframework.beans.factory.annotation.Value;
+
+              public class B {
+                  @Value("${my.property}-${my.other.property}")
+                  String myProperty;
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void aggregateMarksAnnotationsWithoutExtractableProperty() {
+        rewriteRun(
+          spec -> spec
+            .recipe(new FindInlineSpringBootProperties(false, true))
+            .dataTable(SpringBootPropertySummary.Row.class, rows -> assertThat(rows).containsExactly(
+              new SpringBootPropertySummary.Row("my.property", Type.VALUE, 1, "A.java")
+            )),
+          //language=java
+          java(
+            """
+              import org.springframework.beans.factory.annotation.Value;
+
+              public class A {
+                  static final String NAME = "my.property";
+
+                  @Value("${my.property}")
+                  String myProperty;
+
+                  @Value(NAME)
+                  String name;
+              }
+              """,
+            """
+              import org.springframework.beans.factory.annotation.Value;
+
+              public class A {
+                  static final String NAME = "my.property";
+
+                  @Value("${my.property}")
+                  String myProperty;
+
+                  /*~~(Annotation found but could not extract property.)~~>*/@Value(NAME)
+                  String name;
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void aggregateAndMarkAnnotations() {
+        rewriteRun(
+          spec -> spec
+            .recipe(new FindInlineSpringBootProperties(true, true))
+            .dataTable(SpringBootPropertySummary.Row.class, rows -> assertThat(rows).containsExactly(
+              new SpringBootPropertySummary.Row("my.property", Type.VALUE, 1, "A.java"),
+              new SpringBootPropertySummary.Row("my.property", Type.CONDITIONAL, 1, "A.java")
+            )),
+          //language=java
+          java(
+            """
+              import org.springframework.beans.factory.annotation.Value;
+              import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+
+              @ConditionalOnProperty("my.property")
+              public class A {
+                  @Value("${my.property}")
+                  String myProperty;
+              }
+              """,
+            """
+              import org.springframework.beans.factory.annotation.Value;
+              import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+
+              /*~~>*/@ConditionalOnProperty("my.property")
+              public class A {
+                  /*~~>*/@Value("${my.property}")
+                  String myProperty;
+              }
+              """
+          )
+        );
+    }
+
     @Test
     void indirectPropertyName() {
         rewriteRun(
@@ -0,0 +1,60 @@
+package org.openrewrite.contrib.spring;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openrewrite.contrib.spring.PropertyReferenceAggregator.PropertyReferences;
+import org.openrewrite.contrib.spring.table.SpringBootPropertyReport.Type;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PropertyReferenceAggregatorTest {
+
+    private static List<PropertyReferences> aggregate(PropertyReferenceAggregator aggregator) {
+        IntStream.range(0, 10_000).parallel().forEach(i -> aggregator.add(
+          "property." + i % 500,
+          i % 3 == 0 ? Type.CONDITIONAL : Type.VALUE,
+          "src/File" + i % 97 + ".java"));
+        List<PropertyReferences> references = new ArrayList<>();
+        aggregator.forEach(references::add);
+        return references;
+    }
+
+    @Test
+    void countsReferencesAndSamplesSourcePaths(@TempDir Path tempDir) {
+        PropertyReferenceAggregator aggregator = new PropertyReferenceAggregator(1_000, 2, tempDir);
+        aggregator.add("b", Type.VALUE, "src/C.java");
+        aggregator.add("a", Type.VALUE, "src/B.java");
+        aggregator.add("a", Type.VALUE, "src/C.java");
+        aggregator.add("a", Type.VALUE, "src/A.java");
+        aggregator.add("a", Type.CONDITIONAL, "src/A.java");
+
+        List<PropertyReferences> references = new ArrayList<>();
+        aggregator.forEach(references::add);
+
+        assertThat(references).containsExactly(
+          new PropertyReferences("a", Type.VALUE, 3, List.of("src/A.java", "src/B.java")),
+          new PropertyReferences("a", Type.CONDITIONAL, 1, List.of("src/A.java")),
+          new PropertyReferences("b", Type.VALUE, 1, List.of("src/C.java"))
+        );
+    }
+
+    @Test
+    void spilledRunsGiveSameReferences(@TempDir Path tempDir) throws Exception {
+        List<PropertyReferences> inMemory = aggregate(new PropertyReferenceAggregator(100_000, 3, tempDir));
+        assertThat(inMemory).hasSize(1_000);
+        assertThat(inMemory.stream().mapToLong(PropertyReferences::getReferences).sum()).isEqualTo(10_000);
+
+        // Small enough for the runs to be merged while references are added
+        assertThat(aggregate(new PropertyReferenceAggregator(7, 3, tempDir))).isEqualTo(inMemory);
+        assertThat(aggregate(new PropertyReferenceAggregator(400, 3, tempDir))).isEqualTo(inMemory);
+        try (var files = Files.list(tempDir)) {
+            assertThat(files).isEmpty();
+        }
+    }
+}